@@ -0,0 +1,123 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.util.Locale;
+
+/**
+ * Processor architectures, normalized across the different names used by the JVM and binary formats.
+ */
+public enum Architecture {
+
+	/**
+	 * 32 bit x86, also known as i386 or i686.
+	 */
+	X86,
+	/**
+	 * 64 bit x86, also known as amd64 or x64.
+	 */
+	X86_64,
+	/**
+	 * 32 bit ARM.
+	 */
+	ARM,
+	/**
+	 * 64 bit ARM, also known as arm64.
+	 */
+	AARCH64,
+	/**
+	 * 64 bit big-endian PowerPC.
+	 */
+	PPC64,
+	/**
+	 * 64 bit little-endian PowerPC.
+	 */
+	PPC64LE,
+	/**
+	 * 64 bit IBM Z.
+	 */
+	S390X,
+	/**
+	 * 64 bit RISC-V.
+	 */
+	RISCV64,
+	/**
+	 * An unknown or at least unrecognizable architecture.
+	 */
+	UNKNOWN;
+
+	private static final Architecture CURRENT = fromProperty(System.getProperty("os.arch"));
+
+	/**
+	 * Normalizes the value of the "os.arch" system property, which differs between JVM vendors and versions, e.g.
+	 * "amd64" and "x86_64" or "aarch64" and "arm64".
+	 *
+	 * @param arch The value of the property, may be {@code null}.
+	 * @return The architecture or {@link #UNKNOWN} if it is not recognized.
+	 */
+	public static Architecture fromProperty(String arch) {
+		if (arch == null)
+			return UNKNOWN;
+
+		switch (arch.toLowerCase(Locale.ROOT).trim()) {
+			case "x86":
+			case "i386":
+			case "i486":
+			case "i586":
+			case "i686":
+				return X86;
+			case "amd64":
+			case "x86_64":
+			case "x86-64":
+			case "x64":
+				return X86_64;
+			case "arm":
+			case "arm32":
+			case "armv7l":
+			case "armhf":
+				return ARM;
+			case "aarch64":
+			case "arm64":
+				return AARCH64;
+			case "ppc64":
+				return PPC64;
+			case "ppc64le":
+				return PPC64LE;
+			case "s390x":
+				return S390X;
+			case "riscv64":
+				return RISCV64;
+			default:
+				return UNKNOWN;
+		}
+	}
+
+	/**
+	 * @return The architecture of the running JVM.
+	 */
+	public static Architecture current() {
+		return CURRENT;
+	}
+
+}
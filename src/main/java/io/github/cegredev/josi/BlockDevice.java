@@ -0,0 +1,229 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The characteristics of the block device a file system is stored on, as reported by its request queue in sysfs.
+ * Storage components can use them to tune their I/O, e.g. by running compactions in parallel on NVMe drives only.
+ * <p>
+ * For partitions, the queue of the whole disk is reported. Device mapper and software RAID devices report the values
+ * the kernel derived from the devices below them.
+ */
+public final class BlockDevice {
+
+	private final int major, minor;
+
+	private final String name;
+
+	private final Type type;
+
+	private final boolean rotational;
+
+	private final String scheduler;
+
+	private final long queueDepth, readAheadKb, optimalIoSize, logicalBlockSize, physicalBlockSize;
+
+	private BlockDevice(int major, int minor, String name, boolean rotational, String scheduler, long queueDepth,
+						long readAheadKb, long optimalIoSize, long logicalBlockSize, long physicalBlockSize) {
+		this.major = major;
+		this.minor = minor;
+		this.name = name;
+		this.rotational = rotational;
+		this.scheduler = scheduler;
+		this.queueDepth = queueDepth;
+		this.readAheadKb = readAheadKb;
+		this.optimalIoSize = optimalIoSize;
+		this.logicalBlockSize = logicalBlockSize;
+		this.physicalBlockSize = physicalBlockSize;
+		this.type = rotational ? Type.HDD : name.startsWith("nvme") ? Type.NVME : Type.SSD;
+	}
+
+	/**
+	 * Reads the block device with the given number from sysfs.
+	 *
+	 * @param root  The root of the file system, "/" for the host.
+	 * @param major The major device number.
+	 * @param minor The minor device number.
+	 * @return The block device or {@code null} if there is no such device, e.g. for virtual file systems like tmpfs
+	 * or overlayfs which have the major number 0.
+	 */
+	static BlockDevice read(Path root, int major, int minor) {
+		if (major == 0)
+			return null;
+
+		Path device;
+		try {
+			// A link to the device in the tree of its bus, e.g. "../../devices/pci0000:00/.../nvme0n1/nvme0n1p2"
+			device = SysFiles.resolve(root, "/sys/dev/block/" + major + ":" + minor).toRealPath();
+		} catch (IOException | SecurityException e) {
+			return null;
+		}
+
+		String name = device.getFileName().toString();
+		// Partitions have no queue of their own, the disk they belong to is their parent directory
+		Path disk = Files.exists(device.resolve("partition")) && device.getParent() != null ? device.getParent()
+				: device;
+		Path queue = disk.resolve("queue");
+
+		String scheduler = SysFiles.read(queue.resolve("scheduler"));
+		if (scheduler != null) {
+			// "mq-deadline kyber [bfq] none"
+			int start = scheduler.indexOf('['), end = scheduler.indexOf(']', start + 1);
+			if (start >= 0 && end >= 0)
+				scheduler = scheduler.substring(start + 1, end);
+		}
+
+		return new BlockDevice(major, minor, name, SysFiles.readLong(queue.resolve("rotational"), 0) == 1,
+				scheduler, SysFiles.readLong(queue.resolve("nr_requests"), -1),
+				SysFiles.readLong(queue.resolve("read_ahead_kb"), -1),
+				SysFiles.readLong(queue.resolve("optimal_io_size"), -1),
+				SysFiles.readLong(queue.resolve("logical_block_size"), -1),
+				SysFiles.readLong(queue.resolve("physical_block_size"), -1));
+	}
+
+	/**
+	 * Looks up the number of a device node like "/dev/sdb2" in sysfs. File systems like btrfs report an anonymous
+	 * device with the major number 0 in the mount table, although their source is a real block device.
+	 *
+	 * @param root   The root of the file system, "/" for the host.
+	 * @param source The source of a mount.
+	 * @return The device number as {@code major << 32 | minor} or -1 if the source is not a known block device.
+	 */
+	static long readDeviceNumber(Path root, String source) {
+		if (source == null || !source.startsWith("/dev/"))
+			return -1;
+
+		// Follows links like /dev/mapper/root -> ../dm-0 to the kernel's name of the device
+		Path node = SysFiles.resolve(root, source);
+		try {
+			node = node.toRealPath();
+		} catch (IOException | SecurityException e) {
+			// Not available inside this root, but the name may still be the kernel's
+		}
+
+		String number = SysFiles.read(SysFiles.resolve(root, "/sys/class/block/" + node.getFileName() + "/dev"));
+		int colon = number == null ? -1 : number.indexOf(':');
+		if (colon < 0)
+			return -1;
+
+		try {
+			return (Long.parseLong(number.substring(0, colon)) << 32) | Long.parseLong(number.substring(colon + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	public int getMajor() {
+		return major;
+	}
+
+	public int getMinor() {
+		return minor;
+	}
+
+	/**
+	 * @return The kernel's name of the device, e.g. "nvme0n1p2", "sda1" or "dm-0".
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return Whether the device has spinning platters, which makes random access very expensive.
+	 */
+	public boolean isRotational() {
+		return rotational;
+	}
+
+	/**
+	 * @return The active I/O scheduler, e.g. "mq-deadline" or "none", or {@code null} if unknown.
+	 */
+	public String getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * @return The number of requests the queue accepts ({@code nr_requests}) or -1 if unknown.
+	 */
+	public long getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * @return The read-ahead in KiB or -1 if unknown.
+	 */
+	public long getReadAheadKb() {
+		return readAheadKb;
+	}
+
+	/**
+	 * @return The preferred size of I/O requests in bytes, 0 if the device does not report one and -1 if unknown.
+	 */
+	public long getOptimalIoSize() {
+		return optimalIoSize;
+	}
+
+	/**
+	 * @return The smallest size the device can address in bytes or -1 if unknown.
+	 */
+	public long getLogicalBlockSize() {
+		return logicalBlockSize;
+	}
+
+	/**
+	 * @return The smallest size the device can write without a read-modify-write cycle in bytes or -1 if unknown.
+	 */
+	public long getPhysicalBlockSize() {
+		return physicalBlockSize;
+	}
+
+	@Override
+	public String toString() {
+		return "BlockDevice{name=" + name + ", type=" + type + ", scheduler=" + scheduler + ", queueDepth="
+				+ queueDepth + ", readAheadKb=" + readAheadKb + "}";
+	}
+
+	public enum Type {
+
+		/**
+		 * A rotational hard disk.
+		 */
+		HDD,
+		/**
+		 * A non-rotational device that is not attached through NVMe, e.g. a SATA SSD or a virtual disk.
+		 */
+		SSD,
+		NVME
+
+	}
+
+}
@@ -0,0 +1,325 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The CPU and memory limits imposed on the current process by its control groups (cgroup v1 or v2), which is how
+ * container runtimes like Docker or Kubernetes limit containers. Limits of parent groups are taken into account.
+ * <p>
+ * Instances are immutable snapshots. Locating the control group files is comparatively expensive and only done once,
+ * {@link #refresh()} then only re-reads the few small files containing the limits, which makes it cheap enough to
+ * call periodically in long-running processes whose limits may be changed in place.
+ */
+public final class CGroupLimits {
+
+	/**
+	 * The limits of a process not running in any control group, or of an operating system that is not the current
+	 * one.
+	 */
+	static final CGroupLimits NONE = new CGroupLimits(new Controllers(0, Collections.emptyList(),
+			Collections.emptyList(), Collections.emptyList(), null));
+
+	/**
+	 * cgroup v1 reports "no limit" as the largest multiple of the page size, anything above this is unlimited.
+	 */
+	private static final long V1_UNLIMITED_THRESHOLD = Long.MAX_VALUE / 2;
+
+	private final Controllers controllers;
+
+	private final long cpuQuota, cpuPeriod, memoryLimit;
+
+	private final BitSet cpuSet;
+
+	private CGroupLimits(Controllers controllers) {
+		this.controllers = controllers;
+
+		long quota = -1, period = -1;
+		// Every level of the hierarchy can impose a limit, the strictest one wins
+		for (Path directory : controllers.cpu) {
+			long levelQuota, levelPeriod;
+			if (controllers.version == 2) {
+				String content = SysFiles.read(directory.resolve("cpu.max"));
+				String[] max = content == null ? new String[0] : content.split(" ");
+				levelQuota = max.length == 2 ? parseLong(max[0]) : -1;
+				levelPeriod = max.length == 2 ? parseLong(max[1]) : -1;
+			} else {
+				levelQuota = SysFiles.readLong(directory.resolve("cpu.cfs_quota_us"), -1);
+				levelPeriod = SysFiles.readLong(directory.resolve("cpu.cfs_period_us"), -1);
+			}
+
+			if (levelQuota > 0 && levelPeriod > 0
+					&& (quota < 0 || (double) levelQuota / levelPeriod < (double) quota / period)) {
+				quota = levelQuota;
+				period = levelPeriod;
+			}
+		}
+		this.cpuQuota = quota;
+		this.cpuPeriod = period;
+
+		long memory = -1;
+		for (Path directory : controllers.memory) {
+			long limit = controllers.version == 2 ? parseLong(SysFiles.read(directory.resolve("memory.max")))
+					: SysFiles.readLong(directory.resolve("memory.limit_in_bytes"), -1);
+			if (limit >= V1_UNLIMITED_THRESHOLD)
+				limit = -1;
+
+			if (limit >= 0 && (memory < 0 || limit < memory))
+				memory = limit;
+		}
+		this.memoryLimit = memory;
+
+		// The effective CPU set already takes the parents into account
+		BitSet cpus = null;
+		if (!controllers.cpuSet.isEmpty()) {
+			Path directory = controllers.cpuSet.get(0);
+			String list = SysFiles.read(directory.resolve(controllers.version == 2 ? "cpuset.cpus.effective"
+					: "cpuset.effective_cpus"));
+			if (list == null)
+				list = SysFiles.read(directory.resolve("cpuset.cpus"));
+			if (list != null && !list.isEmpty())
+				cpus = SysFiles.parseCpuList(list);
+		}
+		this.cpuSet = cpus;
+	}
+
+	/**
+	 * Reads the limits of the current process.
+	 *
+	 * @param root The root of the file system to read procfs and the cgroup file system from, "/" for the host.
+	 * @return The limits, unlimited if no control groups are found.
+	 */
+	static CGroupLimits read(Path root) {
+		return new CGroupLimits(Controllers.locate(root));
+	}
+
+	private static long parseLong(String value) {
+		try {
+			return value == null ? -1 : Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			// "max" in cgroup v2
+			return -1;
+		}
+	}
+
+	/**
+	 * Reads the current limits again without locating the control group files again.
+	 *
+	 * @return A new snapshot of the limits.
+	 */
+	public CGroupLimits refresh() {
+		return new CGroupLimits(controllers);
+	}
+
+	/**
+	 * @return 1 or 2 for the cgroup version in use, 0 if no control groups were found.
+	 */
+	public int getVersion() {
+		return controllers.version;
+	}
+
+	/**
+	 * @return The number of CPUs the process may use on average, e.g. 1.5, or -1 if unlimited.
+	 */
+	public double getCpuLimit() {
+		return cpuQuota < 0 ? -1 : (double) cpuQuota / cpuPeriod;
+	}
+
+	/**
+	 * @return The CPU time in microseconds the process may use per {@link #getCpuPeriod() period}, or -1 if
+	 * unlimited.
+	 */
+	public long getCpuQuota() {
+		return cpuQuota;
+	}
+
+	/**
+	 * @return The length of a CPU quota period in microseconds, or -1 if unlimited.
+	 */
+	public long getCpuPeriod() {
+		return cpuPeriod;
+	}
+
+	/**
+	 * @return The CPUs the process may run on, or {@code null} if unknown.
+	 */
+	public BitSet getCpuSet() {
+		return cpuSet == null ? null : (BitSet) cpuSet.clone();
+	}
+
+	/**
+	 * @return The memory limit in bytes, or -1 if unlimited.
+	 */
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	public boolean isCpuLimited() {
+		return cpuQuota >= 0;
+	}
+
+	public boolean isMemoryLimited() {
+		return memoryLimit >= 0;
+	}
+
+	/**
+	 * Calculates how many threads can actually run in parallel, which is what thread pools should be sized by.
+	 *
+	 * @param hostProcessors The number of processors of the host, used if neither the CPU quota nor set are limited.
+	 * @return The CPU limit rounded up, the size of the CPU set or the given number of processors, whichever is
+	 * smallest.
+	 */
+	public int getEffectiveProcessors(int hostProcessors) {
+		int processors = hostProcessors;
+		if (cpuQuota >= 0)
+			processors = Math.min(processors, (int) Math.ceil(getCpuLimit()));
+		if (cpuSet != null && !cpuSet.isEmpty())
+			processors = Math.min(processors, cpuSet.cardinality());
+		return Math.max(1, processors);
+	}
+
+	/**
+	 * @return The directory of the process's own group in the unified (v2) hierarchy or {@code null} if cgroup v2 is
+	 * not mounted. In hybrid setups this is the unified hierarchy next to the v1 controllers, which has no
+	 * controllers but still reports the pressure of the group.
+	 */
+	Path getUnifiedDirectory() {
+		return controllers.unified;
+	}
+
+	@Override
+	public String toString() {
+		return "CGroupLimits{version=" + getVersion() + ", cpuLimit=" + getCpuLimit() + ", cpuSet=" + cpuSet
+				+ ", memoryLimit=" + memoryLimit + "}";
+	}
+
+	/**
+	 * The directories of the cgroup controllers, each from the process's own group up to the root of the hierarchy.
+	 */
+	private static final class Controllers {
+
+		private final int version;
+
+		private final List<Path> cpu, memory, cpuSet;
+
+		private final Path unified;
+
+		private Controllers(int version, List<Path> cpu, List<Path> memory, List<Path> cpuSet, Path unified) {
+			this.version = version;
+			this.cpu = cpu;
+			this.memory = memory;
+			this.cpuSet = cpuSet;
+			this.unified = unified;
+		}
+
+		private static Controllers locate(Path root) {
+			List<Mount> mounts = Mount.parse(SysFiles.readLines(SysFiles.resolve(root, "/proc/self/mountinfo")));
+
+			String unifiedPath = null, cpuPath = null, memoryPath = null, cpuSetPath = null;
+			// Lines look like "0::/user.slice" (v2) or "4:cpu,cpuacct:/docker/abc" (v1)
+			for (String line : SysFiles.readLines(SysFiles.resolve(root, "/proc/self/cgroup"))) {
+				String[] fields = line.split(":", 3);
+				if (fields.length != 3)
+					continue;
+
+				if (fields[0].equals("0") && fields[1].isEmpty())
+					unifiedPath = fields[2];
+
+				for (String controller : fields[1].split(",")) {
+					if (controller.equals("cpu"))
+						cpuPath = fields[2];
+					else if (controller.equals("memory"))
+						memoryPath = fields[2];
+					else if (controller.equals("cpuset"))
+						cpuSetPath = fields[2];
+				}
+			}
+
+			List<Path> unified = Collections.emptyList();
+			for (Mount mount : mounts) {
+				if (unifiedPath != null && mount.getFsType().equals("cgroup2")) {
+					unified = hierarchy(root, mount, unifiedPath);
+					break;
+				}
+			}
+			Path group = unified.isEmpty() ? null : unified.get(0);
+
+			// v1 controllers take precedence, in hybrid setups the unified hierarchy has no controllers
+			List<Path> cpu = v1(root, mounts, "cpu", cpuPath), memory = v1(root, mounts, "memory", memoryPath),
+					cpuSet = v1(root, mounts, "cpuset", cpuSetPath);
+			if (!cpu.isEmpty() || !memory.isEmpty() || !cpuSet.isEmpty())
+				return new Controllers(1, cpu, memory, cpuSet, group);
+
+			if (!unified.isEmpty())
+				return new Controllers(2, unified, unified, unified, group);
+
+			return NONE.controllers;
+		}
+
+		private static List<Path> v1(Path root, List<Mount> mounts, String controller, String path) {
+			if (path == null)
+				return Collections.emptyList();
+
+			for (Mount mount : mounts)
+				if (mount.getFsType().equals("cgroup") && mount.hasSuperOption(controller))
+					return hierarchy(root, mount, path);
+
+			return Collections.emptyList();
+		}
+
+		/**
+		 * @return The directory of the group with the given path and all its parents up to the mount point.
+		 */
+		private static List<Path> hierarchy(Path root, Mount mount, String path) {
+			Path mountPoint = SysFiles.resolve(root, mount.getMountPoint());
+
+			// Inside of a cgroup namespace, the mount's root is the group itself and the path is relative to it
+			String relative = path;
+			if (!mount.getRoot().equals("/")) {
+				if (path.startsWith(mount.getRoot()))
+					relative = path.substring(mount.getRoot().length());
+				else
+					relative = "/";
+			}
+
+			Path group = SysFiles.resolve(mountPoint, relative);
+			// Without a cgroup namespace, containers may see the path of the host, which does not exist for them
+			if (!Files.isDirectory(group))
+				group = mountPoint;
+
+			List<Path> hierarchy = new ArrayList<>();
+			for (Path directory = group; directory != null && directory.startsWith(mountPoint);
+				 directory = directory.getParent())
+				hierarchy.add(directory);
+			return hierarchy;
+		}
+	}
+
+}
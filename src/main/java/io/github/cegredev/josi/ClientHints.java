@@ -0,0 +1,186 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+/**
+ * Determines the operating system of an HTTP client from the {@code Sec-CH-UA-Platform} and {@code
+ * Sec-CH-UA-Platform-Version} client hints. Browsers are freezing the operating system information in the {@code
+ * User-Agent}, so the hints are both more precise (they can tell Windows 11 from Windows 10, for example) and much
+ * cheaper to evaluate.
+ * <p>
+ * The header values are structured field strings like {@code "Windows"} and {@code "13.0.0"}. They are read in
+ * place, nothing is allocated and the returned operating systems are shared instances.
+ */
+public final class ClientHints {
+
+	private static final OperatingSystem LINUX = InternedOS.linux(LinuxOS.Distribution.UNKNOWN);
+
+	private ClientHints() {
+	}
+
+	/**
+	 * Determines the operating system from the client hints if they are present, and only falls back to parsing the
+	 * user agent if they are not. Takes its arguments in the same order as
+	 * {@link UserAgentParser#parse(CharSequence, CharSequence, CharSequence)}.
+	 *
+	 * @param userAgent       The value of the {@code User-Agent} header.
+	 * @param platform        The value of the {@code Sec-CH-UA-Platform} header or {@code null}.
+	 * @param platformVersion The value of the {@code Sec-CH-UA-Platform-Version} header or {@code null}.
+	 * @return The operating system of the client.
+	 */
+	public static OperatingSystem determine(CharSequence userAgent, CharSequence platform,
+											CharSequence platformVersion) {
+		OperatingSystem operatingSystem = determine(platform, platformVersion);
+		return operatingSystem != null ? operatingSystem : UserAgentParser.determine(userAgent);
+	}
+
+	/**
+	 * Determines the operating system from the client hints.
+	 *
+	 * @param platform        The value of the {@code Sec-CH-UA-Platform} header or {@code null}.
+	 * @param platformVersion The value of the {@code Sec-CH-UA-Platform-Version} header or {@code null}. Only needed
+	 *                        for Windows and Mac versions.
+	 * @return The operating system of the client or {@code null} if the platform is missing, empty or "Unknown".
+	 */
+	public static OperatingSystem determine(CharSequence platform, CharSequence platformVersion) {
+		if (platform == null)
+			return null;
+
+		long bounds = stringBounds(platform);
+		int start = (int) (bounds >>> 32), end = (int) bounds;
+
+		// https://wicg.github.io/ua-client-hints/#sec-ch-ua-platform lists the known values
+		if (regionEquals(platform, start, end, "Windows"))
+			return InternedOS.win(windowsVersion(platformVersion), false);
+		if (regionEquals(platform, start, end, "macOS"))
+			return macVersion(platformVersion);
+		if (regionEquals(platform, start, end, "Linux"))
+			return LINUX;
+		if (regionEquals(platform, start, end, "Android"))
+			return InternedOS.other(OtherOS.OS.ANDROID);
+		if (regionEquals(platform, start, end, "iOS"))
+			return InternedOS.other(OtherOS.OS.IOS);
+		if (regionEquals(platform, start, end, "Chrome OS") || regionEquals(platform, start, end, "Chromium OS"))
+			return InternedOS.other(OtherOS.OS.CHROME_OS);
+
+		return null;
+	}
+
+	/**
+	 * Maps a Windows platform version to the Windows version. The platform version is not the NT version, see
+	 * https://learn.microsoft.com/en-us/microsoft-edge/web-platform/how-to-detect-win11
+	 */
+	private static WinOS.Version windowsVersion(CharSequence platformVersion) {
+		if (platformVersion == null)
+			return WinOS.Version.UNKNOWN;
+
+		long bounds = stringBounds(platformVersion);
+		int start = (int) (bounds >>> 32), end = (int) bounds;
+
+		int major = parseNumber(platformVersion, start, end);
+		if (major >= 13)
+			return WinOS.Version.WIN_11;
+		if (major >= 1)
+			return WinOS.Version.WIN_10;
+		if (major < 0)
+			return WinOS.Version.UNKNOWN;
+
+		// Major version 0 is used for everything before Windows 10
+		switch (parseNumber(platformVersion, skipComponent(platformVersion, start, end), end)) {
+			case 1:
+				return WinOS.Version.WIN_7;
+			case 2:
+				return WinOS.Version.WIN_8;
+			case 3:
+				return WinOS.Version.WIN_8_1;
+			default:
+				return WinOS.Version.UNKNOWN;
+		}
+	}
+
+	private static MacOS macVersion(CharSequence platformVersion) {
+		if (platformVersion == null)
+			return InternedOS.mac(-1, -1);
+
+		long bounds = stringBounds(platformVersion);
+		int start = (int) (bounds >>> 32), end = (int) bounds;
+
+		int major = parseNumber(platformVersion, start, end);
+		int minor = major < 0 ? -1 : parseNumber(platformVersion, skipComponent(platformVersion, start, end), end);
+		return InternedOS.mac(major, minor);
+	}
+
+	/**
+	 * Finds the content of a structured field string, i.e. strips surrounding whitespace and quotation marks. Values
+	 * without quotation marks are accepted as well.
+	 *
+	 * @return The start index in the upper and the end index (exclusive) in the lower 32 bits.
+	 */
+	private static long stringBounds(CharSequence value) {
+		int start = 0, end = value.length();
+
+		while (start < end && value.charAt(start) == ' ')
+			start++;
+		while (end > start && value.charAt(end - 1) == ' ')
+			end--;
+
+		if (end - start >= 2 && value.charAt(start) == '"' && value.charAt(end - 1) == '"') {
+			start++;
+			end--;
+		}
+
+		return (long) start << 32 | end;
+	}
+
+	private static boolean regionEquals(CharSequence value, int start, int end, String expected) {
+		if (end - start != expected.length())
+			return false;
+
+		for (int i = 0; i < expected.length(); i++)
+			if (value.charAt(start + i) != expected.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return The number at the start of the given region, or -1 if there is none.
+	 */
+	private static int parseNumber(CharSequence value, int start, int end) {
+		int number = -1;
+		for (int i = start; i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9'; i++)
+			number = Math.max(number, 0) * 10 + value.charAt(i) - '0';
+		return number;
+	}
+
+	/**
+	 * @return The index after the next dot in the given region, or {@code end} if there is none.
+	 */
+	private static int skipComponent(CharSequence value, int start, int end) {
+		for (int i = start; i < end; i++)
+			if (value.charAt(i) == '.')
+				return i + 1;
+		return end;
+	}
+
+}
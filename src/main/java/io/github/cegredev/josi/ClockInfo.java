@@ -0,0 +1,203 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How expensive it is to read the time on the current machine. {@link System#nanoTime()} and
+ * {@link System#currentTimeMillis()} take a few nanoseconds when the kernel's clock source can be read from user
+ * space (like the TSC), but need a system call taking up to microseconds with clock sources like HPET, ACPI PM or, on
+ * older kernels, Xen. Metrics and other code reading the time very often can fall back to a coarse, cached clock then.
+ * <p>
+ * The clock source is only known on Linux. The costs are measured with a short microbenchmark when the info is
+ * created, which takes no more than about 20 milliseconds, even with the slowest clock sources.
+ */
+public final class ClockInfo {
+
+	/**
+	 * Clock sources that can be read through the vDSO without a system call.
+	 */
+	private static final List<String> FAST_CLOCKSOURCES = Arrays.asList("tsc", "arch_sys_counter", "kvm-clock",
+			"hyperv_clocksource_tsc_page", "riscv_clocksource");
+
+	/**
+	 * Reading the time costs more than this many nanoseconds only if it needs a system call.
+	 */
+	private static final double EXPENSIVE_THRESHOLD_NANOS = 100;
+
+	private static final int ROUNDS = 5, CALLS_PER_ROUND = 20_000, CALLS_PER_CHECK = 100;
+
+	/**
+	 * A round stops early after this long, so slow clock sources do not delay the caller by up to a second.
+	 */
+	private static final long ROUND_BUDGET_NANOS = 1_000_000;
+
+	private static final Lazy<ClockInfo> CURRENT = new Lazy<>(() -> {
+		OperatingSystem os = CurrentOS.get();
+		Path root = os instanceof LinuxOS ? ((LinuxOS) os).getRoot() : null;
+		return root == null ? measure(null, Collections.emptyList()) : read(root);
+	});
+
+	/**
+	 * Keeps the JIT from eliminating the benchmarked calls.
+	 */
+	private static volatile long sink;
+
+	private final String clocksource;
+
+	private final List<String> availableClocksources;
+
+	private final double nanoTimeCost, currentTimeMillisCost;
+
+	private ClockInfo(String clocksource, List<String> availableClocksources, double nanoTimeCost,
+					  double currentTimeMillisCost) {
+		this.clocksource = clocksource;
+		this.availableClocksources = availableClocksources;
+		this.nanoTimeCost = nanoTimeCost;
+		this.currentTimeMillisCost = currentTimeMillisCost;
+	}
+
+	/**
+	 * @return The clock information of the current machine, measured on first access.
+	 */
+	public static ClockInfo current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Reads the clock sources from the sysfs of the given file system and measures the cost of reading the time.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static ClockInfo read(Path root) {
+		Path directory = SysFiles.resolve(root, "/sys/devices/system/clocksource/clocksource0");
+		String current = SysFiles.read(directory.resolve("current_clocksource"));
+		String available = SysFiles.read(directory.resolve("available_clocksource"));
+
+		return measure(current == null || current.isEmpty() ? null : current, available == null
+				|| available.isEmpty() ? Collections.emptyList()
+				: Collections.unmodifiableList(Arrays.asList(available.split("\\s+"))));
+	}
+
+	private static ClockInfo measure(String clocksource, List<String> available) {
+		return new ClockInfo(clocksource, available, measureNanoTime(), measureCurrentTimeMillis());
+	}
+
+	/**
+	 * @return The cost of a call in nanoseconds, the minimum of several rounds to filter out interruptions. Each
+	 * round makes at most {@link #CALLS_PER_ROUND} calls and stops after {@link #ROUND_BUDGET_NANOS}.
+	 */
+	private static double measureNanoTime() {
+		double best = Double.MAX_VALUE;
+		// The first round also warms up
+		for (int round = 0; round <= ROUNDS; round++) {
+			long sum = 0, start = System.nanoTime(), elapsed;
+			int calls = 0;
+			do {
+				for (int i = 0; i < CALLS_PER_CHECK; i++)
+					sum += System.nanoTime();
+				calls += CALLS_PER_CHECK;
+				elapsed = System.nanoTime() - start;
+			} while (calls < CALLS_PER_ROUND && elapsed < ROUND_BUDGET_NANOS);
+			sink = sum;
+
+			if (round > 0)
+				best = Math.min(best, (double) elapsed / calls);
+		}
+		return best;
+	}
+
+	private static double measureCurrentTimeMillis() {
+		double best = Double.MAX_VALUE;
+		for (int round = 0; round <= ROUNDS; round++) {
+			long sum = 0, start = System.nanoTime(), elapsed;
+			int calls = 0;
+			do {
+				for (int i = 0; i < CALLS_PER_CHECK; i++)
+					sum += System.currentTimeMillis();
+				calls += CALLS_PER_CHECK;
+				elapsed = System.nanoTime() - start;
+			} while (calls < CALLS_PER_ROUND && elapsed < ROUND_BUDGET_NANOS);
+			sink = sum;
+
+			if (round > 0)
+				best = Math.min(best, (double) elapsed / calls);
+		}
+		return best;
+	}
+
+	/**
+	 * @return The clock source of the kernel, e.g. "tsc", or {@code null} if unknown.
+	 */
+	public String getClocksource() {
+		return clocksource;
+	}
+
+	/**
+	 * @return The clock sources the kernel could switch to, empty if unknown.
+	 */
+	public List<String> getAvailableClocksources() {
+		return availableClocksources;
+	}
+
+	/**
+	 * @return Whether the clock source can be read without a system call, {@code false} if unknown.
+	 */
+	public boolean isFastClocksource() {
+		return clocksource != null && FAST_CLOCKSOURCES.contains(clocksource);
+	}
+
+	/**
+	 * @return The measured cost of {@link System#nanoTime()} in nanoseconds.
+	 */
+	public double getNanoTimeCost() {
+		return nanoTimeCost;
+	}
+
+	/**
+	 * @return The measured cost of {@link System#currentTimeMillis()} in nanoseconds.
+	 */
+	public double getCurrentTimeMillisCost() {
+		return currentTimeMillisCost;
+	}
+
+	/**
+	 * @return Whether reading the time is expensive enough that code calling it very often should use a cached clock
+	 * instead, judged by the measured cost.
+	 */
+	public boolean isExpensive() {
+		return nanoTimeCost > EXPENSIVE_THRESHOLD_NANOS || currentTimeMillisCost > EXPENSIVE_THRESHOLD_NANOS;
+	}
+
+	@Override
+	public String toString() {
+		return "ClockInfo{clocksource=" + clocksource + ", nanoTimeCost=" + nanoTimeCost + ", currentTimeMillisCost="
+				+ currentTimeMillisCost + "}";
+	}
+
+}
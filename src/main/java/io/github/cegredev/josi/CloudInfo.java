@@ -0,0 +1,179 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The cloud provider and instance type a machine runs on, identified from the DMI/SMBIOS data the hypervisor exposes
+ * in sysfs. Unlike asking the metadata endpoint of the provider, this needs no network round-trip.
+ */
+public final class CloudInfo {
+
+	/**
+	 * The info of a machine that is not known to run in a cloud.
+	 */
+	static final CloudInfo NONE = new CloudInfo(Provider.NONE, null, null, null, null);
+
+	/**
+	 * Azure reports this chassis asset tag on all of its virtual machines.
+	 */
+	private static final String AZURE_ASSET_TAG = "7783-7084-3265-9085-8269-3286-77";
+
+	private final Provider provider;
+
+	private final String sysVendor, productName, boardVendor, chassisAssetTag;
+
+	private CloudInfo(Provider provider, String sysVendor, String productName, String boardVendor,
+					  String chassisAssetTag) {
+		this.provider = provider;
+		this.sysVendor = sysVendor;
+		this.productName = productName;
+		this.boardVendor = boardVendor;
+		this.chassisAssetTag = chassisAssetTag;
+	}
+
+	/**
+	 * Reads the DMI data from the sysfs of the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static CloudInfo read(Path root) {
+		Path directory = SysFiles.resolve(root, "/sys/class/dmi/id");
+		String sysVendor = SysFiles.read(directory.resolve("sys_vendor"));
+		String productName = SysFiles.read(directory.resolve("product_name"));
+		String boardVendor = SysFiles.read(directory.resolve("board_vendor"));
+		String chassisAssetTag = SysFiles.read(directory.resolve("chassis_asset_tag"));
+		// Older Xen based EC2 instances only mention Amazon in the BIOS version
+		String biosVersion = SysFiles.read(directory.resolve("bios_version"));
+
+		return new CloudInfo(identify(sysVendor, productName, boardVendor, chassisAssetTag, biosVersion), sysVendor,
+				productName, boardVendor, chassisAssetTag);
+	}
+
+	static Provider identify(String sysVendor, String productName, String boardVendor, String chassisAssetTag,
+							 String biosVersion) {
+		String vendor = lower(sysVendor), product = lower(productName), board = lower(boardVendor),
+				assetTag = lower(chassisAssetTag), bios = lower(biosVersion);
+
+		if (vendor.contains("amazon") || board.contains("amazon") || assetTag.contains("amazon")
+				|| bios.contains("amazon"))
+			return Provider.AWS;
+		if (vendor.equals("google") || product.equals("google compute engine"))
+			return Provider.GCP;
+		// Plain Hyper-V looks the same apart from the asset tag
+		if (assetTag.equals(AZURE_ASSET_TAG))
+			return Provider.AZURE;
+		if (assetTag.contains("oraclecloud"))
+			return Provider.ORACLE;
+		if (vendor.contains("alibaba") || product.contains("alibaba"))
+			return Provider.ALIBABA;
+		if (vendor.equals("digitalocean"))
+			return Provider.DIGITALOCEAN;
+		if (vendor.equals("hetzner"))
+			return Provider.HETZNER;
+		if (vendor.contains("openstack") || product.contains("openstack"))
+			return Provider.OPENSTACK;
+		return Provider.NONE;
+	}
+
+	private static String lower(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	public Provider getProvider() {
+		return provider;
+	}
+
+	public boolean isCloud() {
+		return provider != Provider.NONE;
+	}
+
+	/**
+	 * The instance type, which only AWS reports as the product name of its Nitro based instances.
+	 *
+	 * @return The instance type, e.g. "m5.large", or {@code null} if unknown.
+	 */
+	public String getInstanceType() {
+		// Xen based instances report "HVM domU" instead
+		return provider == Provider.AWS && productName != null && productName.indexOf('.') > 0 ? productName : null;
+	}
+
+	/**
+	 * @return The family of the instance type, e.g. "m5" for "m5.large", or {@code null} if unknown.
+	 */
+	public String getInstanceFamily() {
+		String type = getInstanceType();
+		return type == null ? null : type.substring(0, type.indexOf('.'));
+	}
+
+	/**
+	 * @return The raw {@code sys_vendor}, e.g. "Amazon EC2", or {@code null} if unknown.
+	 */
+	public String getSysVendor() {
+		return sysVendor;
+	}
+
+	/**
+	 * @return The raw {@code product_name}, e.g. "Google Compute Engine", or {@code null} if unknown.
+	 */
+	public String getProductName() {
+		return productName;
+	}
+
+	/**
+	 * @return The raw {@code board_vendor} or {@code null} if unknown.
+	 */
+	public String getBoardVendor() {
+		return boardVendor;
+	}
+
+	/**
+	 * @return The raw {@code chassis_asset_tag} or {@code null} if unknown.
+	 */
+	public String getChassisAssetTag() {
+		return chassisAssetTag;
+	}
+
+	@Override
+	public String toString() {
+		return "CloudInfo{provider=" + provider + ", productName=" + productName + "}";
+	}
+
+	public enum Provider {
+
+		AWS, GCP, AZURE, ORACLE, ALIBABA, DIGITALOCEAN, HETZNER,
+		/**
+		 * Any OpenStack based cloud.
+		 */
+		OPENSTACK,
+		/**
+		 * Not running in a known cloud, or nothing is known.
+		 */
+		NONE
+
+	}
+
+}
@@ -0,0 +1,308 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The cores of the processors with their relative performance and frequency scaling. On hybrid processors, e.g. with
+ * performance and efficiency cores, the CPUs are grouped into performance classes, so latency-critical threads can be
+ * pinned to the fastest ones.
+ * <p>
+ * Instances are immutable and read from sysfs.
+ */
+public final class CoreTopology {
+
+	/**
+	 * How many percent slower than the fastest CPU of a class another CPU may be to still belong to it.
+	 */
+	private static final int CLASS_MARGIN = 15;
+
+	/**
+	 * The topology of a machine about which nothing is known.
+	 */
+	static final CoreTopology NONE = new CoreTopology(Collections.emptyList(), Collections.emptyList());
+
+	private final List<Cpu> cpus;
+
+	/**
+	 * The performance classes, fastest first.
+	 */
+	private final List<BitSet> classes;
+
+	private CoreTopology(List<Cpu> cpus, List<BitSet> classes) {
+		this.cpus = cpus;
+		this.classes = classes;
+	}
+
+	/**
+	 * Reads the topology from the sysfs of the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 * @return The topology, {@link #NONE} if sysfs does not contain any CPUs.
+	 */
+	static CoreTopology read(Path root) {
+		BitSet online = SysFiles.readOnlineCpus(root);
+		if (online.isEmpty())
+			return NONE;
+
+		Path directory = SysFiles.resolve(root, "/sys/devices/system/cpu");
+		List<Cpu> cpus = new ArrayList<>(online.cardinality());
+		for (int id = online.nextSetBit(0); id >= 0; id = online.nextSetBit(id + 1)) {
+			Path cpu = directory.resolve("cpu" + id);
+			Path topology = cpu.resolve("topology"), frequency = cpu.resolve("cpufreq");
+
+			// core_cpus_list replaced thread_siblings_list in Linux 5.7
+			BitSet siblings = SysFiles.parseCpuList(SysFiles.read(topology.resolve("core_cpus_list")));
+			if (siblings.isEmpty())
+				siblings = SysFiles.parseCpuList(SysFiles.read(topology.resolve("thread_siblings_list")));
+			if (siblings.isEmpty())
+				siblings.set(id);
+
+			cpus.add(new Cpu(id, (int) SysFiles.readLong(topology.resolve("physical_package_id"), -1),
+					(int) SysFiles.readLong(topology.resolve("core_id"), -1), siblings,
+					(int) SysFiles.readLong(cpu.resolve("cpu_capacity"), -1),
+					SysFiles.read(frequency.resolve("scaling_governor")),
+					SysFiles.readLong(frequency.resolve("cpuinfo_max_freq"), -1),
+					SysFiles.readLong(frequency.resolve("scaling_max_freq"), -1)));
+		}
+
+		return new CoreTopology(Collections.unmodifiableList(cpus), classify(root, cpus));
+	}
+
+	/**
+	 * Groups the CPUs into performance classes. Intel hybrid processors expose their core types as separate PMUs,
+	 * everything else is grouped by capacity or, if that is unknown, by maximum frequency. Preferred cores (Turbo
+	 * Boost Max 3.0, amd-pstate) boost a few hundred MHz higher than their neighbours, so a new class only starts
+	 * where the value drops by more than {@link #CLASS_MARGIN} percent.
+	 */
+	private static List<BitSet> classify(Path root, List<Cpu> cpus) {
+		BitSet performance = SysFiles.parseCpuList(SysFiles.read(SysFiles.resolve(root, "/sys/devices/cpu_core/cpus")));
+		BitSet efficiency = SysFiles.parseCpuList(SysFiles.read(SysFiles.resolve(root, "/sys/devices/cpu_atom/cpus")));
+		if (!performance.isEmpty() && !efficiency.isEmpty()) {
+			List<BitSet> classes = new ArrayList<>(2);
+			classes.add(performance);
+			classes.add(efficiency);
+			return Collections.unmodifiableList(classes);
+		}
+
+		// Sorted descending, so the fastest class comes first
+		TreeMap<Long, BitSet> byPerformance = new TreeMap<>(Collections.reverseOrder());
+		for (Cpu cpu : cpus) {
+			long key = cpu.capacity > 0 ? cpu.capacity : Math.max(cpu.maxFrequency, 0);
+			byPerformance.computeIfAbsent(key, k -> new BitSet()).set(cpu.id);
+		}
+
+		List<BitSet> classes = new ArrayList<>();
+		long leader = 0;
+		for (Map.Entry<Long, BitSet> entry : byPerformance.entrySet()) {
+			if (classes.isEmpty() || entry.getKey() * 100 < leader * (100 - CLASS_MARGIN)) {
+				leader = entry.getKey();
+				classes.add(entry.getValue());
+			} else {
+				classes.get(classes.size() - 1).or(entry.getValue());
+			}
+		}
+		return Collections.unmodifiableList(classes);
+	}
+
+	/**
+	 * @return The online CPUs, sorted by their ids.
+	 */
+	public List<Cpu> getCpus() {
+		return cpus;
+	}
+
+	/**
+	 * @return The CPU with the given id or {@code null} if it is not online.
+	 */
+	public Cpu getCpu(int id) {
+		for (Cpu cpu : cpus)
+			if (cpu.id == id)
+				return cpu;
+		return null;
+	}
+
+	/**
+	 * @return Copies of the CPUs of each performance class, the fastest class first. Homogeneous machines have a
+	 * single class.
+	 */
+	public List<BitSet> getPerformanceClasses() {
+		List<BitSet> copies = new ArrayList<>(classes.size());
+		for (BitSet cpus : classes)
+			copies.add((BitSet) cpus.clone());
+		return copies;
+	}
+
+	/**
+	 * @return The CPUs of the fastest performance class, empty if the topology is unknown.
+	 */
+	public BitSet getFastestCpus() {
+		return classes.isEmpty() ? new BitSet() : (BitSet) classes.get(0).clone();
+	}
+
+	/**
+	 * @return Whether the machine has cores with different performance, e.g. performance and efficiency cores.
+	 */
+	public boolean isHybrid() {
+		return classes.size() > 1;
+	}
+
+	/**
+	 * @return The number of physical cores, counting SMT siblings only once.
+	 */
+	public int getCoreCount() {
+		List<BitSet> cores = new ArrayList<>();
+		for (Cpu cpu : cpus)
+			if (!cores.contains(cpu.siblings))
+				cores.add(cpu.siblings);
+		return cores.size();
+	}
+
+	/**
+	 * @return Whether any core runs more than one hardware thread.
+	 */
+	public boolean isSmtActive() {
+		for (Cpu cpu : cpus)
+			if (cpu.siblings.cardinality() > 1)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Frequency scaling adds ramp-up latency whenever a core wakes up from idle, which shows in the tail latency.
+	 *
+	 * @return The CPUs whose governor is known and is not "performance".
+	 */
+	public BitSet getFrequencyScaledCpus() {
+		BitSet scaled = new BitSet();
+		for (Cpu cpu : cpus)
+			if (cpu.governor != null && !cpu.isPerformanceGovernor())
+				scaled.set(cpu.id);
+		return scaled;
+	}
+
+	@Override
+	public String toString() {
+		return "CoreTopology{cpus=" + cpus + ", classes=" + classes + "}";
+	}
+
+	/**
+	 * A single online CPU, which may be one of several hardware threads of a core.
+	 */
+	public static final class Cpu {
+
+		private final int id, packageId, coreId, capacity;
+
+		private final BitSet siblings;
+
+		private final String governor;
+
+		private final long maxFrequency, scalingMaxFrequency;
+
+		private Cpu(int id, int packageId, int coreId, BitSet siblings, int capacity, String governor,
+					long maxFrequency, long scalingMaxFrequency) {
+			this.id = id;
+			this.packageId = packageId;
+			this.coreId = coreId;
+			this.siblings = siblings;
+			this.capacity = capacity;
+			this.governor = governor;
+			this.maxFrequency = maxFrequency;
+			this.scalingMaxFrequency = scalingMaxFrequency;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * @return The id of the socket or -1 if unknown.
+		 */
+		public int getPackageId() {
+			return packageId;
+		}
+
+		/**
+		 * @return The id of the core within its package or -1 if unknown.
+		 */
+		public int getCoreId() {
+			return coreId;
+		}
+
+		/**
+		 * @return A copy of the hardware threads of this core, including this CPU.
+		 */
+		public BitSet getSmtSiblings() {
+			return (BitSet) siblings.clone();
+		}
+
+		/**
+		 * @return The capacity relative to the fastest CPU, which has 1024, or -1 if unknown. Only few architectures
+		 * report it.
+		 */
+		public int getCapacity() {
+			return capacity;
+		}
+
+		/**
+		 * @return The cpufreq governor, e.g. "performance" or "powersave", or {@code null} if unknown.
+		 */
+		public String getGovernor() {
+			return governor;
+		}
+
+		public boolean isPerformanceGovernor() {
+			return "performance".equals(governor);
+		}
+
+		/**
+		 * @return The maximum frequency supported by the hardware in kHz or -1 if unknown.
+		 */
+		public long getMaxFrequency() {
+			return maxFrequency;
+		}
+
+		/**
+		 * @return The maximum frequency the governor may currently choose in kHz or -1 if unknown.
+		 */
+		public long getScalingMaxFrequency() {
+			return scalingMaxFrequency;
+		}
+
+		@Override
+		public String toString() {
+			return "Cpu{id=" + id + ", core=" + coreId + ", capacity=" + capacity + ", governor=" + governor
+					+ ", maxFrequency=" + maxFrequency + "}";
+		}
+
+	}
+
+}
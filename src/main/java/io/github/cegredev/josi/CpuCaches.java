@@ -0,0 +1,284 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The cache hierarchy of the processors: size, associativity, line size and which CPUs share each cache. Use it to
+ * pad contended fields to the actual line size or to size blocks of data to fit into a cache level.
+ * <p>
+ * Instances are immutable. The caches are read from sysfs on Linux. On other operating systems no caches are known
+ * and only the line size falls back to the usual value of the platform.
+ */
+public final class CpuCaches {
+
+	/**
+	 * The caches of a machine about which nothing is known.
+	 */
+	static final CpuCaches NONE = new CpuCaches(Collections.emptyList());
+
+	private static final Lazy<CpuCaches> CURRENT = new Lazy<>(() -> {
+		OperatingSystem os = CurrentOS.get();
+		return os instanceof LinuxOS ? ((LinuxOS) os).getCpuCaches() : NONE;
+	});
+
+	private final List<Cache> caches;
+
+	private CpuCaches(List<Cache> caches) {
+		this.caches = caches;
+	}
+
+	/**
+	 * @return The caches of the current machine.
+	 */
+	public static CpuCaches current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Reads the caches from the sysfs of the given file system. Caches shared by several CPUs are only read once.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static CpuCaches read(Path root) {
+		Path cpus = SysFiles.resolve(root, "/sys/devices/system/cpu");
+		BitSet online = SysFiles.readOnlineCpus(root);
+		if (online.isEmpty())
+			return NONE;
+
+		List<Cache> caches = new ArrayList<>();
+		for (int cpu = online.nextSetBit(0); cpu >= 0; cpu = online.nextSetBit(cpu + 1)) {
+			Path directory = cpus.resolve("cpu" + cpu).resolve("cache");
+			for (int index = 0; ; index++) {
+				Path cache = directory.resolve("index" + index);
+				int level = (int) SysFiles.readLong(cache.resolve("level"), -1);
+				if (level < 0)
+					break;
+
+				Type type = Type.fromName(SysFiles.read(cache.resolve("type")));
+				if (type == Type.INSTRUCTION || isKnown(caches, cpu, level, type))
+					continue;
+
+				BitSet shared = SysFiles.parseCpuList(SysFiles.read(cache.resolve("shared_cpu_list")));
+				if (shared.isEmpty())
+					shared.set(cpu);
+
+				caches.add(new Cache(level, type, parseSize(SysFiles.read(cache.resolve("size"))),
+						(int) SysFiles.readLong(cache.resolve("ways_of_associativity"), -1),
+						(int) SysFiles.readLong(cache.resolve("coherency_line_size"), -1),
+						SysFiles.readLong(cache.resolve("number_of_sets"), -1), shared));
+			}
+		}
+
+		return new CpuCaches(Collections.unmodifiableList(caches));
+	}
+
+	/**
+	 * @return Whether the cache of the given CPU was already read through another CPU sharing it.
+	 */
+	private static boolean isKnown(List<Cache> caches, int cpu, int level, Type type) {
+		for (Cache cache : caches)
+			if (cache.level == level && cache.type == type && cache.sharedCpus.get(cpu))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Parses sizes like "48K" or "32M".
+	 */
+	private static long parseSize(String size) {
+		if (size == null || size.isEmpty())
+			return -1;
+
+		long factor = 1;
+		char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+		if (unit == 'K')
+			factor = 1024;
+		else if (unit == 'M')
+			factor = 1024 * 1024;
+		else if (unit == 'G')
+			factor = 1024 * 1024 * 1024;
+
+		try {
+			return Long.parseLong(factor == 1 ? size : size.substring(0, size.length() - 1)) * factor;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return All data and unified caches of the machine, every shared cache only once. Instruction caches are
+	 * omitted.
+	 */
+	public List<Cache> getCaches() {
+		return caches;
+	}
+
+	/**
+	 * On machines with different kinds of cores, the caches of the first CPU are reported.
+	 *
+	 * @param level The level, e.g. 1 for L1.
+	 * @return The data or unified cache of the given level of the first CPU or {@code null} if there is none.
+	 */
+	public Cache getCache(int level) {
+		for (Cache cache : caches)
+			if (cache.level == level)
+				return cache;
+		return null;
+	}
+
+	/**
+	 * @return How many separate caches of the given level there are, e.g. the number of L3 slices.
+	 */
+	public int getCount(int level) {
+		int count = 0;
+		for (Cache cache : caches)
+			if (cache.level == level)
+				count++;
+		return count;
+	}
+
+	/**
+	 * The size of a cache line, which contended fields should be padded to in order to avoid false sharing.
+	 *
+	 * @return The line size of the L1 data cache, or 128 on Apple silicon and 64 everywhere else if unknown.
+	 */
+	public int getLineSize() {
+		Cache l1 = getCache(1);
+		if (l1 != null && l1.lineSize > 0)
+			return l1.lineSize;
+		return CurrentOS.get().isFamily(CurrentOS.Family.MAC) && Architecture.current() == Architecture.AARCH64
+				? 128 : 64;
+	}
+
+	@Override
+	public String toString() {
+		return "CpuCaches{caches=" + caches + "}";
+	}
+
+	/**
+	 * A single cache, which may be shared by several CPUs.
+	 */
+	public static final class Cache {
+
+		private final int level;
+
+		private final Type type;
+
+		private final long size, sets;
+
+		private final int associativity, lineSize;
+
+		private final BitSet sharedCpus;
+
+		private Cache(int level, Type type, long size, int associativity, int lineSize, long sets,
+					  BitSet sharedCpus) {
+			this.level = level;
+			this.type = type;
+			this.size = size;
+			this.associativity = associativity;
+			this.lineSize = lineSize;
+			this.sets = sets;
+			this.sharedCpus = sharedCpus;
+		}
+
+		public int getLevel() {
+			return level;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return The size in bytes or -1 if unknown.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return The number of ways or -1 if unknown. Fully associative caches report 0 on some platforms.
+		 */
+		public int getAssociativity() {
+			return associativity;
+		}
+
+		/**
+		 * @return The line size in bytes or -1 if unknown.
+		 */
+		public int getLineSize() {
+			return lineSize;
+		}
+
+		/**
+		 * @return The number of sets or -1 if unknown.
+		 */
+		public long getSets() {
+			return sets;
+		}
+
+		/**
+		 * @return A copy of the CPUs sharing this cache.
+		 */
+		public BitSet getSharedCpus() {
+			return (BitSet) sharedCpus.clone();
+		}
+
+		@Override
+		public String toString() {
+			return "Cache{level=" + level + ", type=" + type + ", size=" + size + ", lineSize=" + lineSize
+					+ ", sharedCpus=" + sharedCpus + "}";
+		}
+
+	}
+
+	public enum Type {
+
+		DATA, INSTRUCTION, UNIFIED, UNKNOWN;
+
+		static Type fromName(String name) {
+			if (name == null)
+				return UNKNOWN;
+
+			switch (name) {
+				case "Data":
+					return DATA;
+				case "Instruction":
+					return INSTRUCTION;
+				case "Unified":
+					return UNIFIED;
+				default:
+					return UNKNOWN;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+/**
+ * Instruction set extensions that native code commonly has specialized code paths for. Each one is stored as a single
+ * bit of {@link CpuInfo#getFeatureBits()}, so checking for a whole set of them is a single bit test.
+ */
+public enum CpuFeature {
+
+	// x86
+	SSE2(Architecture.X86_64, "sse2"),
+	SSSE3(Architecture.X86_64, "ssse3"),
+	SSE4_1(Architecture.X86_64, "sse4_1"),
+	SSE4_2(Architecture.X86_64, "sse4_2"),
+	POPCNT(Architecture.X86_64, "popcnt"),
+	AVX(Architecture.X86_64, "avx"),
+	AVX2(Architecture.X86_64, "avx2"),
+	FMA(Architecture.X86_64, "fma"),
+	BMI1(Architecture.X86_64, "bmi1"),
+	BMI2(Architecture.X86_64, "bmi2"),
+	AVX512F(Architecture.X86_64, "avx512f"),
+	AVX512BW(Architecture.X86_64, "avx512bw"),
+	AVX512DQ(Architecture.X86_64, "avx512dq"),
+	AVX512VL(Architecture.X86_64, "avx512vl"),
+	AVX512_VNNI(Architecture.X86_64, "avx512_vnni"),
+	AES_NI(Architecture.X86_64, "aes"),
+	PCLMULQDQ(Architecture.X86_64, "pclmulqdq"),
+	SHA_NI(Architecture.X86_64, "sha_ni"),
+
+	// ARM
+	/**
+	 * Advanced SIMD, called "asimd" on 64 bit ARM.
+	 */
+	NEON(Architecture.AARCH64, "asimd", "neon"),
+	SVE(Architecture.AARCH64, "sve"),
+	SVE2(Architecture.AARCH64, "sve2"),
+	ARM_AES(Architecture.AARCH64, "aes"),
+	ARM_SHA2(Architecture.AARCH64, "sha2"),
+	ARM_CRC32(Architecture.AARCH64, "crc32"),
+	/**
+	 * Large System Extensions, i.e. atomic instructions.
+	 */
+	LSE(Architecture.AARCH64, "atomics");
+
+	private final Architecture family;
+
+	private final String[] flags;
+
+	CpuFeature(Architecture family, String... flags) {
+		this.family = family;
+		this.flags = flags;
+	}
+
+	/**
+	 * Finds the feature a flag in /proc/cpuinfo stands for. Flags are only unique per architecture, "aes" for example
+	 * is reported by x86 as well as ARM processors.
+	 *
+	 * @param architecture The architecture the flag was reported on.
+	 * @param flag         The flag.
+	 * @return The feature or {@code null} if it is not one of the known ones.
+	 */
+	static CpuFeature fromFlag(Architecture architecture, String flag) {
+		Architecture family = family(architecture);
+		for (CpuFeature feature : values())
+			if (feature.family == family)
+				for (String name : feature.flags)
+					if (name.equals(flag))
+						return feature;
+		return null;
+	}
+
+	private static Architecture family(Architecture architecture) {
+		switch (architecture) {
+			case X86:
+			case X86_64:
+				return Architecture.X86_64;
+			case ARM:
+			case AARCH64:
+				return Architecture.AARCH64;
+			default:
+				return architecture;
+		}
+	}
+
+	/**
+	 * @return The bit of this feature in {@link CpuInfo#getFeatureBits()}.
+	 */
+	public long bit() {
+		return 1L << ordinal();
+	}
+
+	/**
+	 * @return The bits of all the given features combined.
+	 */
+	public static long mask(CpuFeature... features) {
+		long mask = 0;
+		for (CpuFeature feature : features)
+			mask |= feature.bit();
+		return mask;
+	}
+
+}
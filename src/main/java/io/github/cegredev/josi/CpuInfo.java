@@ -0,0 +1,160 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The architecture and instruction set extensions of the processor, used to choose the fastest native code path for
+ * the host.
+ * <p>
+ * The features are read from /proc/cpuinfo on Linux. On other operating systems only the architecture is known and no
+ * features are reported.
+ */
+public final class CpuInfo {
+
+	private static final Lazy<CpuInfo> CURRENT = new Lazy<>(() -> {
+		OperatingSystem os = CurrentOS.get();
+		return os instanceof LinuxOS ? ((LinuxOS) os).getCpuInfo() : new CpuInfo(Architecture.current(), 0, null);
+	});
+
+	private final Architecture architecture;
+
+	private final long features;
+
+	private final String modelName;
+
+	CpuInfo(Architecture architecture, long features, String modelName) {
+		this.architecture = architecture;
+		this.features = features;
+		this.modelName = modelName;
+	}
+
+	/**
+	 * @return Information about the processor of the current machine.
+	 */
+	public static CpuInfo current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Reads /proc/cpuinfo of the given file system.
+	 *
+	 * @param root         The root of the file system, "/" for the host.
+	 * @param architecture The architecture the kernel is running on, which the flags depend on.
+	 */
+	static CpuInfo read(Path root, Architecture architecture) {
+		return parse(SysFiles.readLines(SysFiles.resolve(root, "/proc/cpuinfo")), architecture);
+	}
+
+	/**
+	 * Parses the contents of /proc/cpuinfo. Only the first processor is looked at, the kernel only reports features
+	 * that are available on all of them.
+	 */
+	static CpuInfo parse(List<String> lines, Architecture architecture) {
+		long features = 0;
+		String modelName = null;
+		boolean flagsFound = false;
+
+		for (String line : lines) {
+			int colon = line.indexOf(':');
+			if (colon < 0)
+				continue;
+
+			String key = line.substring(0, colon).trim(), value = line.substring(colon + 1).trim();
+			switch (key) {
+				// x86
+				case "flags":
+					// ARM
+				case "Features":
+					if (flagsFound)
+						break;
+					flagsFound = true;
+
+					for (String flag : value.split("\\s+")) {
+						CpuFeature feature = CpuFeature.fromFlag(architecture, flag);
+						if (feature != null)
+							features |= feature.bit();
+					}
+					break;
+				case "model name":
+					if (modelName == null)
+						modelName = value;
+					break;
+				default:
+					break;
+			}
+
+			if (flagsFound && modelName != null)
+				break;
+		}
+
+		return new CpuInfo(architecture, features, modelName);
+	}
+
+	public Architecture getArchitecture() {
+		return architecture;
+	}
+
+	/**
+	 * @return The features as a bit set, see {@link CpuFeature#bit()}.
+	 */
+	public long getFeatureBits() {
+		return features;
+	}
+
+	public boolean hasFeature(CpuFeature feature) {
+		return (features & feature.bit()) != 0;
+	}
+
+	/**
+	 * @return Whether the processor supports all of the given features.
+	 */
+	public boolean hasFeatures(CpuFeature... features) {
+		long mask = CpuFeature.mask(features);
+		return (this.features & mask) == mask;
+	}
+
+	/**
+	 * @return The model name of the processor or {@code null} if unknown.
+	 */
+	public String getModelName() {
+		return modelName;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("CpuInfo{architecture=").append(architecture).append(", features=[");
+		String separator = "";
+		for (CpuFeature feature : CpuFeature.values()) {
+			if (hasFeature(feature)) {
+				builder.append(separator).append(feature);
+				separator = ", ";
+			}
+		}
+		return builder.append("]}").toString();
+	}
+
+}
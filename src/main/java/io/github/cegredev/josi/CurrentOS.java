@@ -27,15 +27,24 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Locale;
 
 public class CurrentOS {
 
 	private static final OperatingSystem OS = determine(System.getProperty("os.name"),
-			System.getProperty("os.version"), new File("/etc/os-release"));
+			System.getProperty("os.version"), new File("/etc/os-release"), Paths.get("/"));
 
 	static OperatingSystem determine(String name, String version, File osRelease) {
+		return determine(name, version, osRelease, null);
+	}
+
+	/**
+	 * @param root The root of the file system a Linux distribution is detected on, {@code null} if not applicable.
+	 */
+	static OperatingSystem determine(String name, String version, File osRelease, Path root) {
 		// Locale.ROOT prevents funny locale stuff from happening
 		name = name.toLowerCase(Locale.ROOT).trim();
 
@@ -63,6 +72,8 @@ public class CurrentOS {
 						return new WinOS(WinOS.Version.WIN_8_1, false);
 					case "10":
 						return new WinOS(WinOS.Version.WIN_10, false);
+					case "11":
+						return new WinOS(WinOS.Version.WIN_11, false);
 					default:
 						break;
 				}
@@ -87,50 +98,15 @@ public class CurrentOS {
 		if (name.contains("nix") || name.contains("nux") || name.contains("aix")) {
 			// If the file does not exist there is nothing more we can achieve
 			if (!osRelease.exists())
-				return new LinuxOS(LinuxOS.Distribution.UNKNOWN);
-
-			HashMap<String, String> osReleaseMap = new HashMap<>();
+				return new LinuxOS(LinuxOS.Distribution.UNKNOWN, root);
 
 			try (BufferedReader reader = new BufferedReader(new FileReader(osRelease))) {
-				String line;
-				while ((line = reader.readLine()) != null) {
-					int split = line.indexOf('=');
-
-					// Broken etc/os-release file, but other lines might still be correct
-					if (split <= -1)
-						continue;
-
-					String key = line.substring(0, split), value = line.substring(split + 1);
-					// Some distros put the value in quotation marks, some don't.
-					// To achieve the consistency needed for a switch statement, we remove them here.
-					if (value.startsWith("\""))
-						value = value.substring(1);
-					if (value.endsWith("\""))
-						value = value.substring(0, value.length() - 1);
-
-					osReleaseMap.put(key, value);
-				}
+				return determineLinux(reader, root);
 			} catch (IOException e) {
 				System.err.println("Something went wrong while loading /etc/os-release!");
 				e.printStackTrace();
-				return new LinuxOS(LinuxOS.Distribution.UNKNOWN);
+				return new LinuxOS(LinuxOS.Distribution.UNKNOWN, root);
 			}
-
-			// ID is the computer friendly name of the current Linux distribution
-			String id = osReleaseMap.get("ID");
-			// ID_LIKE is a list of space-separated IDs of parent distributions
-			String idLike = osReleaseMap.get("ID_LIKE");
-
-			LinuxOS.Distribution distro = LinuxOS.Distribution.UNKNOWN;
-			if (id != null)
-				distro = LinuxOS.Distribution.fromID(id);
-
-			if (distro == LinuxOS.Distribution.UNKNOWN && idLike != null)
-				for (String parentID : idLike.split(" "))
-					if ((distro = LinuxOS.Distribution.fromID(parentID)) != LinuxOS.Distribution.UNKNOWN)
-						return new LinuxOS(distro);
-
-			return new LinuxOS(LinuxOS.Distribution.UNKNOWN);
 		}
 
 		// Others
@@ -138,9 +114,59 @@ public class CurrentOS {
 		if (name.contains("sunos"))
 			return new OtherOS(OtherOS.OS.SOLARIS);
 
+		if (name.contains("freebsd"))
+			return new OtherOS(OtherOS.OS.FREEBSD);
+
 		return new OtherOS(OtherOS.OS.UNKNOWN);
 	}
 
+	/**
+	 * Determines the Linux distribution from the contents of an os-release file.
+	 *
+	 * @param osRelease A reader supplying the contents of the file, usually located at /etc/os-release.
+	 * @param root      The root of the file system the file belongs to, {@code null} if unknown.
+	 * @return The Linux distribution described by the file.
+	 * @throws IOException If the reader throws one.
+	 */
+	static LinuxOS determineLinux(BufferedReader osRelease, Path root) throws IOException {
+		HashMap<String, String> osReleaseMap = new HashMap<>();
+
+		String line;
+		while ((line = osRelease.readLine()) != null) {
+			int split = line.indexOf('=');
+
+			// Broken etc/os-release file, but other lines might still be correct
+			if (split <= -1)
+				continue;
+
+			String key = line.substring(0, split), value = line.substring(split + 1);
+			// Some distros put the value in quotation marks, some don't.
+			// To achieve the consistency needed for a switch statement, we remove them here.
+			if (value.startsWith("\""))
+				value = value.substring(1);
+			if (value.endsWith("\""))
+				value = value.substring(0, value.length() - 1);
+
+			osReleaseMap.put(key, value);
+		}
+
+		// ID is the computer friendly name of the current Linux distribution
+		String id = osReleaseMap.get("ID");
+		// ID_LIKE is a list of space-separated IDs of parent distributions
+		String idLike = osReleaseMap.get("ID_LIKE");
+
+		LinuxOS.Distribution distro = LinuxOS.Distribution.UNKNOWN;
+		if (id != null)
+			distro = LinuxOS.Distribution.fromID(id);
+
+		if (distro == LinuxOS.Distribution.UNKNOWN && idLike != null)
+			for (String parentID : idLike.split(" "))
+				if ((distro = LinuxOS.Distribution.fromID(parentID)) != LinuxOS.Distribution.UNKNOWN)
+					break;
+
+		return new LinuxOS(distro, root);
+	}
+
 	public static OperatingSystem get() {
 		return OS;
 	}
@@ -0,0 +1,217 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a JSON profile of the current host, for example:
+ * <pre>
+ * {"os":{"family":"LINUX","distro":"UBUNTU"},"name":"Linux","version":"5.15.0","arch":"amd64",
+ *  "javaVersion":"17.0.9","maxMemory":4294967296,"availableProcessors":8}
+ * </pre>
+ * Everything but the number of available processors cannot change while the JVM is running, so that part is rendered
+ * only once and afterwards simply copied to the output. No reflection or intermediate objects are involved.
+ */
+public final class HostProfile {
+
+	/**
+	 * The part of the profile that does not change at runtime, i.e. everything up to and including the comma before
+	 * the first dynamic value.
+	 */
+	private static final String CONSTANT = renderConstant(CurrentOS.get(), System.getProperty("os.name"),
+			System.getProperty("os.version"), System.getProperty("os.arch"), System.getProperty("java.version"),
+			Runtime.getRuntime().maxMemory());
+
+	private static final byte[] CONSTANT_BYTES = CONSTANT.getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] AVAILABLE_PROCESSORS = "\"availableProcessors\":".getBytes(StandardCharsets.UTF_8);
+
+	private HostProfile() {
+	}
+
+	/**
+	 * Writes the profile of the current host as UTF-8 encoded JSON.
+	 *
+	 * @param out The stream to write to.
+	 * @throws IOException If the stream throws one.
+	 */
+	public static void writeJson(OutputStream out) throws IOException {
+		out.write(CONSTANT_BYTES);
+		out.write(AVAILABLE_PROCESSORS);
+		writeNumber(Runtime.getRuntime().availableProcessors(), out);
+		out.write('}');
+	}
+
+	/**
+	 * Writes the profile of the current host as JSON.
+	 *
+	 * @param out The appendable to write to.
+	 * @throws IOException If the appendable throws one.
+	 */
+	public static void writeJson(Appendable out) throws IOException {
+		out.append(CONSTANT).append("\"availableProcessors\":");
+		appendNumber(Runtime.getRuntime().availableProcessors(), out);
+		out.append('}');
+	}
+
+	/**
+	 * Writes the given operating system as a JSON object. Its {@code family} is always present, the other properties
+	 * depend on the type of the operating system.
+	 *
+	 * @param operatingSystem The operating system to write.
+	 * @param out             The appendable to write to.
+	 * @throws IOException If the appendable throws one.
+	 */
+	public static void writeJson(OperatingSystem operatingSystem, Appendable out) throws IOException {
+		out.append("{\"family\":");
+		appendString(operatingSystem.getFamily().name(), out);
+
+		if (operatingSystem instanceof WinOS) {
+			WinOS win = (WinOS) operatingSystem;
+			out.append(",\"version\":");
+			appendString(win.getVersion().name(), out);
+			out.append(",\"server\":").append(win.isServer() ? "true" : "false");
+		} else if (operatingSystem instanceof MacOS) {
+			MacOS mac = (MacOS) operatingSystem;
+			out.append(",\"major\":");
+			appendNumber(mac.getMajor(), out);
+			out.append(",\"minor\":");
+			appendNumber(mac.getMinor(), out);
+		} else if (operatingSystem instanceof LinuxOS) {
+			out.append(",\"distro\":");
+			appendString(((LinuxOS) operatingSystem).getDistro().name(), out);
+		} else if (operatingSystem instanceof OtherOS) {
+			out.append(",\"os\":");
+			appendString(((OtherOS) operatingSystem).getOS().name(), out);
+		}
+
+		out.append('}');
+	}
+
+	/**
+	 * Renders the constant part of the profile. Is package-private for tests.
+	 */
+	static String renderConstant(OperatingSystem operatingSystem, String name, String version, String arch,
+								 String javaVersion, long maxMemory) {
+		StringBuilder builder = new StringBuilder(256);
+
+		try {
+			builder.append("{\"os\":");
+			writeJson(operatingSystem, builder);
+			builder.append(",\"name\":");
+			appendString(name, builder);
+			builder.append(",\"version\":");
+			appendString(version, builder);
+			builder.append(",\"arch\":");
+			appendString(arch, builder);
+			builder.append(",\"javaVersion\":");
+			appendString(javaVersion, builder);
+			builder.append(",\"maxMemory\":");
+			appendNumber(maxMemory, builder);
+			builder.append(',');
+		} catch (IOException e) {
+			// StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the given value as a JSON string, or {@code null} if it is {@code null}.
+	 */
+	static void appendString(String value, Appendable out) throws IOException {
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF,
+								16));
+					} else {
+						out.append(c);
+					}
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Appends the given number without going through {@link Long#toString(long)}.
+	 */
+	static void appendNumber(long value, Appendable out) throws IOException {
+		if (value < 0) {
+			out.append('-');
+			// Long.MIN_VALUE cannot be negated, but none of the values we write come anywhere close to it
+			value = -value;
+		}
+
+		long divisor = 1;
+		while (divisor <= value / 10)
+			divisor *= 10;
+
+		for (; divisor > 0; divisor /= 10)
+			out.append((char) ('0' + value / divisor % 10));
+	}
+
+	private static void writeNumber(long value, OutputStream out) throws IOException {
+		if (value < 0) {
+			out.write('-');
+			value = -value;
+		}
+
+		long divisor = 1;
+		while (divisor <= value / 10)
+			divisor *= 10;
+
+		for (; divisor > 0; divisor /= 10)
+			out.write((int) ('0' + value / divisor % 10));
+	}
+
+}
@@ -0,0 +1,312 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The huge page support of the kernel: the mode of transparent huge pages (THP), which the kernel applies to ordinary
+ * memory on its own, and the pools of explicitly reserved huge pages (hugetlbfs) that can be requested with
+ * {@code -XX:+UseLargePages} or {@code MAP_HUGETLB}.
+ * <p>
+ * Instances are immutable snapshots.
+ */
+public final class HugePages {
+
+	/**
+	 * The huge page support of a kernel about which nothing is known.
+	 */
+	static final HugePages NONE = new HugePages(ThpMode.UNSUPPORTED, ThpDefrag.UNSUPPORTED, -1,
+			Collections.emptyList());
+
+	private final ThpMode thpMode;
+
+	private final ThpDefrag thpDefrag;
+
+	private final long defaultPageSize;
+
+	private final List<Pool> pools;
+
+	private HugePages(ThpMode thpMode, ThpDefrag thpDefrag, long defaultPageSize, List<Pool> pools) {
+		this.thpMode = thpMode;
+		this.thpDefrag = thpDefrag;
+		this.defaultPageSize = defaultPageSize;
+		this.pools = pools;
+	}
+
+	/**
+	 * Reads the huge page support from the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static HugePages read(Path root) {
+		ThpMode mode = ThpMode.fromName(selected(SysFiles.read(SysFiles.resolve(root,
+				"/sys/kernel/mm/transparent_hugepage/enabled"))));
+		ThpDefrag defrag = ThpDefrag.fromName(selected(SysFiles.read(SysFiles.resolve(root,
+				"/sys/kernel/mm/transparent_hugepage/defrag"))));
+
+		long defaultPageSize = -1, defaultTotal = -1, defaultFree = -1;
+		for (String line : SysFiles.readLines(SysFiles.resolve(root, "/proc/meminfo"))) {
+			if (line.startsWith("Hugepagesize:"))
+				defaultPageSize = parseValue(line) * 1024;
+			else if (line.startsWith("HugePages_Total:"))
+				defaultTotal = parseValue(line);
+			else if (line.startsWith("HugePages_Free:"))
+				defaultFree = parseValue(line);
+		}
+
+		List<Pool> pools = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(SysFiles.resolve(root,
+				"/sys/kernel/mm/hugepages"), "hugepages-*kB")) {
+			for (Path directory : stream) {
+				String name = directory.getFileName().toString();
+				try {
+					long size = Long.parseLong(name.substring("hugepages-".length(), name.length() - 2)) * 1024;
+					pools.add(new Pool(size, SysFiles.readLong(directory.resolve("nr_hugepages"), 0),
+							SysFiles.readLong(directory.resolve("free_hugepages"), 0)));
+				} catch (NumberFormatException e) {
+					// Not a pool after all
+				}
+			}
+		} catch (Exception e) {
+			// Older kernels only report the default pool in meminfo
+			if (defaultPageSize > 0 && defaultTotal >= 0)
+				pools.add(new Pool(defaultPageSize, defaultTotal, Math.max(defaultFree, 0)));
+		}
+		pools.sort(Comparator.comparingLong(Pool::getPageSize));
+
+		return new HugePages(mode, defrag, defaultPageSize, Collections.unmodifiableList(pools));
+	}
+
+	/**
+	 * @return The option in square brackets, e.g. "madvise" for "always [madvise] never".
+	 */
+	private static String selected(String options) {
+		if (options == null)
+			return null;
+
+		int start = options.indexOf('['), end = options.indexOf(']', start + 1);
+		return start < 0 || end < 0 ? options : options.substring(start + 1, end);
+	}
+
+	private static long parseValue(String line) {
+		String[] parts = line.substring(line.indexOf(':') + 1).trim().split("\\s+");
+		try {
+			return Long.parseLong(parts[0]);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	public ThpMode getThpMode() {
+		return thpMode;
+	}
+
+	public ThpDefrag getThpDefrag() {
+		return thpDefrag;
+	}
+
+	/**
+	 * @return Whether transparent huge pages can be used, either for all memory or for memory that is advised to.
+	 */
+	public boolean isThpAvailable() {
+		return thpMode == ThpMode.ALWAYS || thpMode == ThpMode.MADVISE;
+	}
+
+	/**
+	 * @return The size of the default huge pages in bytes or -1 if the kernel does not support huge pages.
+	 */
+	public long getDefaultPageSize() {
+		return defaultPageSize;
+	}
+
+	/**
+	 * @return The pools of reserved huge pages, sorted by their page size.
+	 */
+	public List<Pool> getPools() {
+		return pools;
+	}
+
+	/**
+	 * @return The pool with the given page size or {@code null} if there is none.
+	 */
+	public Pool getPool(long pageSize) {
+		for (Pool pool : pools)
+			if (pool.pageSize == pageSize)
+				return pool;
+		return null;
+	}
+
+	/**
+	 * @return The free memory in reserved huge pages of all sizes in bytes.
+	 */
+	public long getFreeBytes() {
+		long free = 0;
+		for (Pool pool : pools)
+			free += pool.getFreeBytes();
+		return free;
+	}
+
+	@Override
+	public String toString() {
+		return "HugePages{thpMode=" + thpMode + ", thpDefrag=" + thpDefrag + ", pools=" + pools + "}";
+	}
+
+	/**
+	 * The huge pages of one size reserved by the administrator.
+	 */
+	public static final class Pool {
+
+		private final long pageSize, total, free;
+
+		private Pool(long pageSize, long total, long free) {
+			this.pageSize = pageSize;
+			this.total = total;
+			this.free = free;
+		}
+
+		/**
+		 * @return The size of a page in bytes.
+		 */
+		public long getPageSize() {
+			return pageSize;
+		}
+
+		/**
+		 * @return The number of reserved pages.
+		 */
+		public long getTotal() {
+			return total;
+		}
+
+		/**
+		 * @return The number of reserved pages that are not in use.
+		 */
+		public long getFree() {
+			return free;
+		}
+
+		public long getFreeBytes() {
+			return free * pageSize;
+		}
+
+		@Override
+		public String toString() {
+			return "Pool{pageSize=" + pageSize + ", total=" + total + ", free=" + free + "}";
+		}
+
+	}
+
+	/**
+	 * The value of /sys/kernel/mm/transparent_hugepage/enabled.
+	 */
+	public enum ThpMode {
+
+		/**
+		 * Huge pages are used for all anonymous memory where possible.
+		 */
+		ALWAYS,
+		/**
+		 * Huge pages are only used for memory advised to with {@code madvise(MADV_HUGEPAGE)}, which is what
+		 * {@code -XX:+UseTransparentHugePages} does.
+		 */
+		MADVISE,
+		NEVER,
+		/**
+		 * The kernel was built without transparent huge pages or the setting cannot be read.
+		 */
+		UNSUPPORTED;
+
+		static ThpMode fromName(String name) {
+			if (name == null)
+				return UNSUPPORTED;
+
+			switch (name) {
+				case "always":
+					return ALWAYS;
+				case "madvise":
+					return MADVISE;
+				case "never":
+					return NEVER;
+				default:
+					return UNSUPPORTED;
+			}
+		}
+
+	}
+
+	/**
+	 * The value of /sys/kernel/mm/transparent_hugepage/defrag, i.e. how hard the kernel tries to find a huge page on
+	 * a page fault.
+	 */
+	public enum ThpDefrag {
+
+		/**
+		 * Stall and compact memory directly on every fault.
+		 */
+		ALWAYS,
+		/**
+		 * Wake up kswapd and kcompactd and fall back to regular pages immediately.
+		 */
+		DEFER,
+		/**
+		 * Like {@link #MADVISE} for advised memory and like {@link #DEFER} for all other memory.
+		 */
+		DEFER_MADVISE,
+		/**
+		 * Stall and compact memory directly for advised memory only.
+		 */
+		MADVISE,
+		NEVER,
+		UNSUPPORTED;
+
+		static ThpDefrag fromName(String name) {
+			if (name == null)
+				return UNSUPPORTED;
+
+			switch (name) {
+				case "always":
+					return ALWAYS;
+				case "defer":
+					return DEFER;
+				case "defer+madvise":
+					return DEFER_MADVISE;
+				case "madvise":
+					return MADVISE;
+				case "never":
+					return NEVER;
+				default:
+					return UNSUPPORTED;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,244 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * What the I/O APIs of the JVM can make use of on an operating system: zero-copy transfers, direct I/O, preallocation
+ * and the limits of memory mapping. Answers that depend on the file system are cached per mount.
+ */
+public final class IOCapabilities {
+
+	private static final Lazy<IOCapabilities> CURRENT = new Lazy<>(() -> of(CurrentOS.get()));
+
+	/**
+	 * {@code com.sun.nio.file.ExtendedOpenOption.DIRECT}, which only exists since Java 10.
+	 */
+	private static final OpenOption DIRECT = directOption();
+
+	private static final int DEFAULT_PAGE_SIZE = 4096;
+
+	private final OperatingSystem os;
+
+	private final int pageSize;
+
+	private final long maxMapCount;
+
+	private final ConcurrentMap<String, Boolean> directIo = new ConcurrentHashMap<>();
+
+	private IOCapabilities(OperatingSystem os, int pageSize, long maxMapCount) {
+		this.os = os;
+		this.pageSize = pageSize;
+		this.maxMapCount = maxMapCount;
+	}
+
+	/**
+	 * @return The capabilities of the current operating system.
+	 */
+	public static IOCapabilities current() {
+		return CURRENT.get();
+	}
+
+	static IOCapabilities of(OperatingSystem os) {
+		long maxMapCount = os instanceof LinuxOS ? ((LinuxOS) os).getProcessLimits().getMaxMapCount() : -1;
+		return new IOCapabilities(os, pageSize(), maxMapCount);
+	}
+
+	private static OpenOption directOption() {
+		try {
+			Class<?> options = Class.forName("com.sun.nio.file.ExtendedOpenOption");
+			for (Object option : options.getEnumConstants())
+				if (((Enum<?>) option).name().equals("DIRECT"))
+					return (OpenOption) option;
+		} catch (ClassNotFoundException | LinkageError e) {
+			// Not a HotSpot based JVM
+		}
+		return null;
+	}
+
+	private static int pageSize() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			Method pageSize = unsafeClass.getMethod("pageSize");
+			return (int) pageSize.invoke(field.get(null));
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			// Apple silicon uses 16 KiB pages, almost everything else 4 KiB
+			return CurrentOS.get().isFamily(CurrentOS.Family.MAC)
+					&& Architecture.current() == Architecture.AARCH64 ? 16384 : DEFAULT_PAGE_SIZE;
+		}
+	}
+
+	/**
+	 * Whether {@link FileChannel#transferTo} hands the copying to the kernel instead of copying through a buffer in
+	 * the JVM. This is the case for transfers to sockets with sendfile on Linux, macOS, the BSDs and Solaris and with
+	 * TransmitFile on Windows. Linux also uses sendfile or copy_file_range for transfers between files.
+	 */
+	public boolean isZeroCopyTransferSupported() {
+		if (os.isFamily(CurrentOS.Family.WINDOWS, CurrentOS.Family.MAC, CurrentOS.Family.LINUX))
+			return true;
+		if (os instanceof OtherOS) {
+			OtherOS.OS other = ((OtherOS) os).getOS();
+			return other == OtherOS.OS.SOLARIS || other == OtherOS.OS.FREEBSD;
+		}
+		return false;
+	}
+
+	/**
+	 * Whether files in the given directory can be opened with {@code ExtendedOpenOption.DIRECT}, bypassing the page
+	 * cache. This is probed by opening a temporary file, because it depends on the file system, e.g. tmpfs only
+	 * supports it since Linux 6.6. Results are cached per mount, but only if the probe got as far as opening the file,
+	 * so a directory that is not writable does not decide for the whole file system.
+	 * <p>
+	 * The probe always runs on the file system of the JVM, so it is only supported for the current operating system
+	 * and not for one detected on another root, such as an extracted image.
+	 *
+	 * @param directory An existing directory.
+	 * @return Whether direct I/O is supported, {@code false} if the JVM does not support it, the operating system is
+	 * not backed by the host file system or it cannot be probed because the directory is not writable.
+	 */
+	public boolean isDirectIoSupported(Path directory) {
+		if (DIRECT == null)
+			return false;
+
+		Mount mount = null;
+		if (os instanceof LinuxOS) {
+			LinuxOS linux = (LinuxOS) os;
+			if (!linux.isHostRoot())
+				return false;
+			mount = linux.getMount(directory);
+		}
+
+		String key = mount != null ? mount.getMountPoint() : directory.toAbsolutePath().normalize().toString();
+		Boolean supported = directIo.get(key);
+		if (supported == null) {
+			supported = probeDirectIo(directory);
+			if (supported == null)
+				return false;
+			directIo.putIfAbsent(key, supported);
+		}
+		return supported;
+	}
+
+	/**
+	 * @return Whether the file could be opened for direct I/O or {@code null} if the probe could not tell, e.g.
+	 * because no temporary file could be created.
+	 */
+	private static Boolean probeDirectIo(Path directory) {
+		Path file;
+		try {
+			file = Files.createTempFile(directory, ".josi-direct", ".tmp");
+		} catch (IOException | SecurityException e) {
+			return null;
+		}
+
+		try {
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, DIRECT);
+			channel.close();
+			return true;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		} catch (FileSystemException e) {
+			// The file was just created, so only O_DIRECT itself can be rejected (EINVAL). The reason is the
+			// localized strerror text, which is why it is not compared.
+			return false;
+		} catch (IOException | SecurityException e) {
+			return null;
+		} finally {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				// Nothing left to do about it
+			}
+		}
+	}
+
+	/**
+	 * Whether space for files in the given directory can be preallocated with {@code fallocate(2)}, which avoids
+	 * fragmentation and ENOSPC errors halfway through writes. This is determined by the type of the file system, as
+	 * the JVM itself never calls it.
+	 *
+	 * @param directory A directory of this operating system.
+	 * @return Whether the file system supports fallocate, always {@code false} on operating systems other than Linux.
+	 */
+	public boolean isFallocateSupported(Path directory) {
+		if (!(os instanceof LinuxOS))
+			return false;
+
+		Mount mount = ((LinuxOS) os).getMount(directory);
+		if (mount == null)
+			return false;
+
+		switch (mount.getType()) {
+			case EXT4:
+			case XFS:
+			case BTRFS:
+			case TMPFS:
+				return true;
+			// Since NFS 4.2
+			case NFS:
+				return mount.getFsType().equals("nfs4") && !mount.hasSuperOption("vers=4.0")
+						&& !mount.hasSuperOption("vers=4.1");
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return The size of a memory page in bytes, which memory mapped regions are aligned to.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * The maximum number of memory mappings a process may have ({@code vm.max_map_count}). Every
+	 * {@link FileChannel#map mapped} region counts, so processes mapping many files or small regions can run into it
+	 * long before running out of memory.
+	 *
+	 * @return The limit or -1 if unknown or not applicable.
+	 */
+	public long getMaxMapCount() {
+		return maxMapCount;
+	}
+
+	@Override
+	public String toString() {
+		return "IOCapabilities{os=" + os + ", zeroCopyTransfer=" + isZeroCopyTransferSupported() + ", pageSize="
+				+ pageSize + ", maxMapCount=" + maxMapCount + "}";
+	}
+
+}
@@ -0,0 +1,460 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Determines the operating system of a container image directly from its tar layer archives, without extracting
+ * them. The archives are read sequentially, payloads of irrelevant entries are skipped without being buffered and
+ * reading stops as soon as the effective os-release file is known.
+ * <p>
+ * Layers are applied like an OCI runtime would: Upper layers replace files of lower ones, whiteout files
+ * ({@code .wh.<name>}) delete them and opaque whiteouts ({@code .wh..wh..opq}) hide the whole directory. This is why
+ * the layers are read from the top down: Most of the time the lower layers never have to be opened at all.
+ */
+public final class ImageLayerScanner {
+
+	private static final String WHITEOUT_PREFIX = ".wh.", OPAQUE_WHITEOUT = ".wh..wh..opq";
+
+	/**
+	 * Upper limit for the size of an os-release file, anything bigger is surely not one.
+	 */
+	private static final int MAX_OS_RELEASE_SIZE = 64 * 1024;
+
+	/**
+	 * Upper limit for the size of pax and GNU long name headers, which would otherwise be read into memory no matter
+	 * how big a broken or hostile layer claims they are.
+	 */
+	private static final int MAX_HEADER_SIZE = 1024 * 1024;
+
+	private ImageLayerScanner() {
+	}
+
+	/**
+	 * Determines the operating system of an image consisting of the given layers.
+	 *
+	 * @param layers The tar archives of the layers, optionally gzip compressed, in the order they are listed in the
+	 *               image manifest, i.e. the base layer first.
+	 * @return The operating system of the image, {@link LinuxOS.Distribution#UNKNOWN} if it contains no os-release
+	 * file.
+	 * @throws IOException If a layer cannot be read.
+	 */
+	public static OperatingSystem detect(List<Path> layers) throws IOException {
+		List<Path> topDown = new ArrayList<>(layers);
+		Collections.reverse(topDown);
+
+		Lookup lookup = new Lookup();
+		for (Path layer : topDown) {
+			try (InputStream in = Files.newInputStream(layer)) {
+				lookup.scanLayer(in);
+			}
+
+			if (lookup.isDecided())
+				break;
+		}
+
+		return lookup.result();
+	}
+
+	/**
+	 * Determines the operating system of a single, optionally gzip compressed, tar archive, like one produced by
+	 * {@code docker export}. The stream is not closed.
+	 *
+	 * @param tar The stream of the archive.
+	 * @return The operating system of the archive, {@link LinuxOS.Distribution#UNKNOWN} if it contains no os-release
+	 * file.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	public static OperatingSystem detect(InputStream tar) throws IOException {
+		Lookup lookup = new Lookup();
+		lookup.scanLayer(tar);
+		return lookup.result();
+	}
+
+	private static InputStream decompress(InputStream in) throws IOException {
+		BufferedInputStream buffered = new BufferedInputStream(in);
+		buffered.mark(2);
+		int first = buffered.read(), second = buffered.read();
+		buffered.reset();
+
+		return first == 0x1F && second == 0x8B ? new GZIPInputStream(buffered) : buffered;
+	}
+
+	/**
+	 * Normalizes a path within an archive, e.g. "./etc/" becomes "etc".
+	 */
+	private static String normalize(String name) {
+		List<String> components = new ArrayList<>();
+		for (String component : name.split("/")) {
+			if (component.isEmpty() || component.equals("."))
+				continue;
+
+			if (component.equals("..")) {
+				if (!components.isEmpty())
+					components.remove(components.size() - 1);
+			} else {
+				components.add(component);
+			}
+		}
+		return String.join("/", components);
+	}
+
+	/**
+	 * Keeps track of what is known about the os-release files so far, across all layers that have been scanned.
+	 */
+	private static final class Lookup {
+
+		private static final int UNRESOLVED = 0, FILE = 1, LINK = 2, ABSENT = 3;
+
+		private final int[] states = new int[RootFsScanner.OS_RELEASE_PATHS.length];
+
+		private final byte[][] contents = new byte[states.length][];
+
+		private final String[] linkTargets = new String[states.length];
+
+		private void scanLayer(InputStream in) throws IOException {
+			// What this layer says about each path, only applied to the lookup once the layer is done, since
+			// whiteouts only affect the layers below
+			int[] found = new int[states.length];
+			boolean[] hidden = new boolean[states.length];
+
+			TarReader tar = new TarReader(decompress(in));
+			TarReader.Entry entry;
+			while ((entry = tar.next()) != null) {
+				String name = normalize(entry.name);
+				int slash = name.lastIndexOf('/');
+				String parent = slash < 0 ? "" : name.substring(0, slash), fileName = name.substring(slash + 1);
+
+				if (fileName.startsWith(WHITEOUT_PREFIX)) {
+					String deleted = fileName.equals(OPAQUE_WHITEOUT) ? parent
+							: normalize(parent + "/" + fileName.substring(WHITEOUT_PREFIX.length()));
+
+					boolean opaque = fileName.equals(OPAQUE_WHITEOUT);
+					for (int i = 0; i < states.length; i++)
+						if (isSameOrAncestor(deleted, RootFsScanner.OS_RELEASE_PATHS[i], !opaque))
+							hidden[i] = true;
+					continue;
+				}
+
+				int index = indexOf(name);
+				if (index < 0 || states[index] != UNRESOLVED || found[index] != UNRESOLVED)
+					continue;
+
+				if (entry.isFile() && entry.size <= MAX_OS_RELEASE_SIZE) {
+					found[index] = FILE;
+					contents[index] = tar.readContent();
+				} else if (entry.isLink()) {
+					found[index] = LINK;
+					// Hard links are relative to the root of the archive, symbolic ones to the directory of the link
+					linkTargets[index] = normalize(entry.hardLink || entry.linkName.startsWith("/") ? entry.linkName
+							: parent + "/" + entry.linkName);
+				}
+
+				if (decide(found) != UNRESOLVED)
+					break;
+			}
+
+			for (int i = 0; i < states.length; i++) {
+				if (states[i] != UNRESOLVED)
+					continue;
+
+				if (found[i] != UNRESOLVED)
+					states[i] = found[i];
+				else if (hidden[i])
+					states[i] = ABSENT;
+			}
+		}
+
+		private static boolean isSameOrAncestor(String directory, String path, boolean includeSame) {
+			if (directory.isEmpty())
+				return true;
+			return (includeSame && path.equals(directory)) || path.startsWith(directory + "/");
+		}
+
+		private static int indexOf(String path) {
+			for (int i = 0; i < RootFsScanner.OS_RELEASE_PATHS.length; i++)
+				if (RootFsScanner.OS_RELEASE_PATHS[i].equals(path))
+					return i;
+			return -1;
+		}
+
+		/**
+		 * @return {@link #FILE} or {@link #ABSENT} if the result is known, considering what has been found in the
+		 * current layer so far, or {@link #UNRESOLVED} if more entries or layers have to be scanned.
+		 */
+		private int decide(int[] found) {
+			for (int i = 0; i < states.length; i++) {
+				int state = resolve(i, found, 0);
+				if (state != ABSENT)
+					return state;
+			}
+			return ABSENT;
+		}
+
+		private int resolve(int index, int[] found, int depth) {
+			int state = states[index] != UNRESOLVED ? states[index] : found[index];
+			if (state != LINK)
+				return state;
+
+			int target = indexOf(linkTargets[index]);
+			// Links to anywhere else are not followed, a lookup there would need the whole image
+			if (target < 0 || depth >= states.length)
+				return ABSENT;
+			return resolve(target, found, depth + 1);
+		}
+
+		private boolean isDecided() {
+			return decide(new int[states.length]) != UNRESOLVED;
+		}
+
+		private OperatingSystem result() throws IOException {
+			for (int i = 0; i < states.length; i++) {
+				int index = i;
+				for (int depth = 0; depth <= states.length && states[index] == LINK; depth++) {
+					index = indexOf(linkTargets[index]);
+					if (index < 0)
+						break;
+				}
+
+				if (index >= 0 && states[index] == FILE) {
+					try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+							new ByteArrayInputStream(contents[index]), StandardCharsets.UTF_8))) {
+						return CurrentOS.determineLinux(reader, null);
+					}
+				}
+			}
+
+			return new LinuxOS(LinuxOS.Distribution.UNKNOWN);
+		}
+
+	}
+
+	/**
+	 * A minimal reader for ustar, pax and GNU tar archives that only supports what is needed to look up files.
+	 */
+	private static final class TarReader {
+
+		private static final int BLOCK_SIZE = 512;
+
+		private final InputStream in;
+
+		private final byte[] header = new byte[BLOCK_SIZE];
+
+		/**
+		 * The number of bytes of the current entry's payload (including padding) that have not been read yet.
+		 */
+		private long remaining;
+
+		private long size;
+
+		private TarReader(InputStream in) {
+			this.in = in;
+		}
+
+		private Entry next() throws IOException {
+			String longName = null, longLink = null;
+
+			while (true) {
+				skipFully(remaining);
+				remaining = 0;
+
+				if (!readBlock(header) || isZeroBlock(header))
+					return null;
+
+				char type = (char) header[156];
+				size = parseSize(header);
+				remaining = padded(size);
+
+				switch (type) {
+					case 'x': // pax extended header for the next entry
+						String pax = new String(readContent(), StandardCharsets.UTF_8);
+						String path = paxValue(pax, "path"), linkPath = paxValue(pax, "linkpath");
+						if (path != null)
+							longName = path;
+						if (linkPath != null)
+							longLink = linkPath;
+						continue;
+					case 'L': // GNU long name for the next entry
+						longName = cString(readContent(), 0, (int) size);
+						continue;
+					case 'K': // GNU long link name for the next entry
+						longLink = cString(readContent(), 0, (int) size);
+						continue;
+					case 'g': // pax global header, nothing in there concerns us
+						continue;
+					default:
+						break;
+				}
+
+				String name = longName != null ? longName : cString(header, 0, 100);
+				// ustar splits long names into a prefix and the name
+				if (longName == null && startsWith(header, 257, "ustar") && header[345] != 0)
+					name = cString(header, 345, 155) + "/" + name;
+
+				return new Entry(name, type, size, longLink != null ? longLink : cString(header, 157, 100));
+			}
+		}
+
+		/**
+		 * Reads the payload of the current entry, which must be small.
+		 *
+		 * @throws IOException If the entry is larger than {@link #MAX_HEADER_SIZE}.
+		 */
+		private byte[] readContent() throws IOException {
+			if (size < 0 || size > MAX_HEADER_SIZE)
+				throw new IOException("Tar entry of " + size + " bytes is too large to be a header!");
+
+			byte[] content = new byte[(int) size];
+			int read = 0;
+			while (read < content.length) {
+				int count = in.read(content, read, content.length - read);
+				if (count < 0)
+					throw new EOFException("Unexpected end of tar archive!");
+				read += count;
+			}
+
+			remaining -= read;
+			return content;
+		}
+
+		private boolean readBlock(byte[] block) throws IOException {
+			int read = 0;
+			while (read < block.length) {
+				int count = in.read(block, read, block.length - read);
+				if (count < 0) {
+					if (read == 0)
+						return false;
+					throw new EOFException("Unexpected end of tar archive!");
+				}
+				read += count;
+			}
+			return true;
+		}
+
+		private void skipFully(long bytes) throws IOException {
+			while (bytes > 0) {
+				long skipped = in.skip(bytes);
+				if (skipped <= 0) {
+					// Some streams refuse to skip at the end, find out whether that is the case
+					if (in.read() < 0)
+						throw new EOFException("Unexpected end of tar archive!");
+					skipped = 1;
+				}
+				bytes -= skipped;
+			}
+		}
+
+		private static long padded(long size) {
+			return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+		}
+
+		private static boolean isZeroBlock(byte[] block) {
+			for (byte b : block)
+				if (b != 0)
+					return false;
+			return true;
+		}
+
+		private static long parseSize(byte[] header) {
+			// GNU base-256 encoding for sizes of 8 GiB and more
+			if ((header[124] & 0x80) != 0) {
+				long size = 0;
+				for (int i = 125; i < 136; i++)
+					size = size << 8 | (header[i] & 0xFF);
+				return size;
+			}
+
+			long size = 0;
+			for (int i = 124; i < 136; i++) {
+				byte b = header[i];
+				if (b >= '0' && b <= '7')
+					size = size * 8 + (b - '0');
+				else if (b != ' ' || size != 0)
+					break;
+			}
+			return size;
+		}
+
+		private static String cString(byte[] bytes, int offset, int length) {
+			int end = offset;
+			while (end < offset + length && end < bytes.length && bytes[end] != 0)
+				end++;
+			return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+		}
+
+		private static boolean startsWith(byte[] bytes, int offset, String prefix) {
+			for (int i = 0; i < prefix.length(); i++)
+				if (bytes[offset + i] != prefix.charAt(i))
+					return false;
+			return true;
+		}
+
+		/**
+		 * Finds a value in pax records, which have the format "length key=value\n".
+		 */
+		private static String paxValue(String pax, String key) {
+			for (String record : pax.split("\n")) {
+				int space = record.indexOf(' '), equals = record.indexOf('=');
+				if (space >= 0 && equals > space && record.substring(space + 1, equals).equals(key))
+					return record.substring(equals + 1);
+			}
+			return null;
+		}
+
+		private static final class Entry {
+
+			private final String name, linkName;
+
+			private final long size;
+
+			private final boolean file, symbolicLink, hardLink;
+
+			private Entry(String name, char type, long size, String linkName) {
+				this.name = name;
+				this.size = size;
+				this.linkName = linkName;
+				this.file = type == '0' || type == '\0' || type == '7';
+				this.symbolicLink = type == '2';
+				this.hardLink = type == '1';
+			}
+
+			private boolean isFile() {
+				return file;
+			}
+
+			private boolean isLink() {
+				return symbolicLink || hardLink;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonical, shared instances of the immutable {@link OperatingSystem} implementations. Used by the decoders and
+ * parsers in this package so that hot paths can return a result without allocating a new object every time.
+ */
+final class InternedOS {
+
+	/**
+	 * Mac versions with a major and minor version below this value are interned, anything else is allocated.
+	 */
+	private static final int MAC_TABLE_SIZE = 32;
+
+	private static final WinOS[] WINDOWS = new WinOS[WinOS.Version.values().length * 2];
+
+	private static final LinuxOS[] LINUX = new LinuxOS[LinuxOS.Distribution.values().length];
+
+	private static final OtherOS[] OTHER = new OtherOS[OtherOS.OS.values().length];
+
+	private static final MacOS MAC_UNKNOWN = new MacOS(-1, -1);
+
+	private static final AtomicReferenceArray<MacOS> MAC = new AtomicReferenceArray<>(MAC_TABLE_SIZE * MAC_TABLE_SIZE);
+
+	static {
+		for (WinOS.Version version : WinOS.Version.values()) {
+			WINDOWS[version.ordinal() * 2] = new WinOS(version, false);
+			WINDOWS[version.ordinal() * 2 + 1] = new WinOS(version, true);
+		}
+
+		for (LinuxOS.Distribution distro : LinuxOS.Distribution.values())
+			LINUX[distro.ordinal()] = new LinuxOS(distro);
+
+		for (OtherOS.OS os : OtherOS.OS.values())
+			OTHER[os.ordinal()] = new OtherOS(os);
+	}
+
+	private InternedOS() {
+	}
+
+	static WinOS win(WinOS.Version version, boolean server) {
+		return WINDOWS[version.ordinal() * 2 + (server ? 1 : 0)];
+	}
+
+	static MacOS mac(int major, int minor) {
+		if (major < 0 && minor < 0)
+			return MAC_UNKNOWN;
+
+		if (major < 0 || minor < 0 || major >= MAC_TABLE_SIZE || minor >= MAC_TABLE_SIZE)
+			return new MacOS(major, minor);
+
+		int index = major * MAC_TABLE_SIZE + minor;
+		MacOS mac = MAC.get(index);
+		if (mac == null) {
+			// Losing this race is harmless, everyone ends up with the instance that made it into the table
+			MAC.compareAndSet(index, null, new MacOS(major, minor));
+			mac = MAC.get(index);
+		}
+		return mac;
+	}
+
+	static LinuxOS linux(LinuxOS.Distribution distro) {
+		return LINUX[distro.ordinal()];
+	}
+
+	static OtherOS other(OtherOS.OS os) {
+		return OTHER[os.ordinal()];
+	}
+
+}
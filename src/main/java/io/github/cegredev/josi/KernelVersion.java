@@ -0,0 +1,157 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+/**
+ * A Linux kernel release like "5.15.0-91-generic", reduced to its major, minor and patch version. These are packed
+ * into a single int, so comparing two versions is a single integer comparison.
+ */
+public final class KernelVersion implements Comparable<KernelVersion> {
+
+	/**
+	 * The version of a kernel whose release could not be determined, lower than any real version.
+	 */
+	public static final KernelVersion UNKNOWN = new KernelVersion(0, null);
+
+	private final int packed;
+
+	private final String release;
+
+	private KernelVersion(int packed, String release) {
+		this.packed = packed;
+		this.release = release;
+	}
+
+	/**
+	 * Packs a version into an int that compares like the version itself.
+	 *
+	 * @param major The major version, 0-127.
+	 * @param minor The minor version, 0-255.
+	 * @param patch The patch level, capped at 65535.
+	 * @return The packed version.
+	 */
+	public static int pack(int major, int minor, int patch) {
+		return (Math.min(Math.max(major, 0), 0x7F) << 24) | (Math.min(Math.max(minor, 0), 0xFF) << 16)
+				| Math.min(Math.max(patch, 0), 0xFFFF);
+	}
+
+	/**
+	 * Parses a kernel release as found in /proc/sys/kernel/osrelease, "uname -r" or the "os.version" property. Only
+	 * the leading numbers are looked at, anything after them, like "-91-generic", is ignored.
+	 *
+	 * @param release The release, may be {@code null}.
+	 * @return The version or {@link #UNKNOWN} if the release does not start with a number.
+	 */
+	public static KernelVersion parse(String release) {
+		if (release == null)
+			return UNKNOWN;
+
+		release = release.trim();
+		int[] parts = new int[3];
+		int part = 0, i = 0;
+		boolean digits = false;
+		for (; i < release.length() && part < parts.length; i++) {
+			char c = release.charAt(i);
+			if (c >= '0' && c <= '9') {
+				// Anything that large is garbage anyway, this just prevents an overflow
+				parts[part] = Math.min(parts[part] * 10 + (c - '0'), 1 << 20);
+				digits = true;
+			} else if (c == '.' && digits) {
+				part++;
+				digits = false;
+			} else {
+				break;
+			}
+		}
+
+		if (i == 0 || (part == 0 && !digits))
+			return UNKNOWN;
+
+		return new KernelVersion(pack(parts[0], parts[1], parts[2]), release);
+	}
+
+	public int getMajor() {
+		return packed >>> 24;
+	}
+
+	public int getMinor() {
+		return (packed >>> 16) & 0xFF;
+	}
+
+	public int getPatch() {
+		return packed & 0xFFFF;
+	}
+
+	/**
+	 * @return The version packed like {@link #pack(int, int, int)} does.
+	 */
+	public int packed() {
+		return packed;
+	}
+
+	/**
+	 * @return The full release this version was parsed from or {@code null} if unknown.
+	 */
+	public String getRelease() {
+		return release;
+	}
+
+	public boolean isAtLeast(int major, int minor) {
+		return packed >= pack(major, minor, 0);
+	}
+
+	public boolean isAtLeast(int major, int minor, int patch) {
+		return packed >= pack(major, minor, patch);
+	}
+
+	public boolean isUnknown() {
+		return packed == 0;
+	}
+
+	@Override
+	public int compareTo(KernelVersion other) {
+		return Integer.compare(packed, other.packed);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof KernelVersion))
+			return false;
+
+		return packed == ((KernelVersion) o).packed;
+	}
+
+	@Override
+	public int hashCode() {
+		return packed;
+	}
+
+	@Override
+	public String toString() {
+		return isUnknown() ? "unknown" : getMajor() + "." + getMinor() + "." + getPatch();
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is computed on first access and cached afterwards, used for the host information of {@link LinuxOS}
+ * which is comparatively expensive to read and often not needed at all.
+ */
+final class Lazy<T> {
+
+	private final Supplier<T> supplier;
+
+	private volatile T value;
+
+	Lazy(Supplier<T> supplier) {
+		this.supplier = supplier;
+	}
+
+	T get() {
+		T result = value;
+		if (result == null) {
+			synchronized (this) {
+				if ((result = value) == null)
+					value = result = supplier.get();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces the cached value, e.g. after it was read again.
+	 */
+	void set(T value) {
+		this.value = value;
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The C standard library a Linux system is built on. Native binaries built against glibc do not run on musl based
+ * distributions like Alpine and vice versa, and the allocators of the two behave very differently.
+ * <p>
+ * The flavor is determined by the dynamic loader (the ELF {@code PT_INTERP}) of the running executable, or of
+ * /bin/sh for file systems other than the host's, and otherwise by probing the usual library directories. The version
+ * is only determined for glibc, musl does not record it anywhere it could be read from without running code.
+ */
+public final class Libc {
+
+	/**
+	 * The C library of a system about which nothing is known.
+	 */
+	static final Libc UNKNOWN = new Libc(Flavor.UNKNOWN, -1, -1);
+
+	/**
+	 * Directories the C library is usually located in, relative to the root.
+	 */
+	private static final String[] LIBRARY_DIRECTORIES = {"lib", "lib64", "usr/lib", "usr/lib64"};
+
+	private static final byte[] GLIBC_VERSION_MARKER = "release version ".getBytes(StandardCharsets.US_ASCII);
+
+	private final Flavor flavor;
+
+	private final int major, minor;
+
+	private Libc(Flavor flavor, int major, int minor) {
+		this.flavor = flavor;
+		this.major = major;
+		this.minor = minor;
+	}
+
+	/**
+	 * Detects the C library of the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static Libc read(Path root) {
+		Flavor flavor = Flavor.UNKNOWN;
+		for (Path executable : executables(root)) {
+			String interpreter = NativeBinary.readInterpreter(executable);
+			if (interpreter != null && (flavor = Flavor.fromLoader(interpreter)) != Flavor.UNKNOWN)
+				break;
+		}
+
+		Path library = findGlibc(root);
+		if (flavor == Flavor.UNKNOWN)
+			flavor = library != null ? Flavor.GLIBC : findMusl(root) ? Flavor.MUSL : Flavor.UNKNOWN;
+
+		if (flavor == Flavor.GLIBC && library != null) {
+			int[] version = readGlibcVersion(library);
+			if (version != null)
+				return new Libc(flavor, version[0], version[1]);
+		}
+		return new Libc(flavor, -1, -1);
+	}
+
+	private static List<Path> executables(Path root) {
+		List<Path> executables = new ArrayList<>(2);
+		// Points to the executable of the JVM for the host, is missing in other file systems
+		executables.add(SysFiles.resolve(root, "/proc/self/exe"));
+		try {
+			Path shell = RootFsScanner.resolve(root, "bin/sh");
+			if (shell != null)
+				executables.add(shell);
+		} catch (IOException e) {
+			// Nothing to learn from a broken link
+		}
+		return executables;
+	}
+
+	/**
+	 * @return The glibc shared library or {@code null} if there is none.
+	 */
+	private static Path findGlibc(Path root) {
+		// The libraries the JVM has mapped are the ones that are actually used
+		for (String line : SysFiles.readLines(SysFiles.resolve(root, "/proc/self/maps"))) {
+			int slash = line.indexOf('/');
+			if (slash < 0)
+				continue;
+
+			String path = line.substring(slash);
+			String name = path.substring(path.lastIndexOf('/') + 1);
+			if (isGlibc(name)) {
+				Path library = SysFiles.resolve(root, path);
+				if (Files.isRegularFile(library))
+					return library;
+			}
+		}
+
+		for (Path directory : libraryDirectories(root)) {
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "libc[.-]*so*")) {
+				for (Path library : stream)
+					if (isGlibc(library.getFileName().toString()))
+						return library;
+			} catch (IOException | SecurityException e) {
+				// Try the next one
+			}
+		}
+		return null;
+	}
+
+	private static boolean isGlibc(String name) {
+		// libc.so.6 is the soname of every glibc since 2.0, older ones also ship libc-2.31.so
+		return name.equals("libc.so.6") || name.startsWith("libc-2.") && name.endsWith(".so");
+	}
+
+	private static boolean findMusl(Path root) {
+		for (Path directory : libraryDirectories(root)) {
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "ld-musl-*")) {
+				if (stream.iterator().hasNext())
+					return true;
+			} catch (IOException | SecurityException e) {
+				// Try the next one
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The library directories including the multiarch ones, e.g. "usr/lib/x86_64-linux-gnu".
+	 */
+	private static List<Path> libraryDirectories(Path root) {
+		List<Path> directories = new ArrayList<>();
+		for (String name : LIBRARY_DIRECTORIES) {
+			Path directory = root.resolve(name);
+			if (!Files.isDirectory(directory))
+				continue;
+
+			directories.add(directory);
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*-linux-*")) {
+				for (Path multiarch : stream)
+					if (Files.isDirectory(multiarch))
+						directories.add(multiarch);
+			} catch (IOException | SecurityException e) {
+				// The directory itself is still there
+			}
+		}
+		return directories;
+	}
+
+	/**
+	 * Determines the version of glibc from the name of its file or otherwise from the "... release version 2.35."
+	 * banner it contains.
+	 *
+	 * @return The major and minor version or {@code null} if unknown.
+	 */
+	static int[] readGlibcVersion(Path library) {
+		String name = library.getFileName().toString();
+		if (name.startsWith("libc-"))
+			return parseVersion(name.substring(5, name.length() - 3));
+
+		try (InputStream in = Files.newInputStream(library)) {
+			byte[] buffer = new byte[1 << 16];
+			int matched = 0, read;
+			StringBuilder version = null;
+			while ((read = in.read(buffer)) > 0) {
+				for (int i = 0; i < read; i++) {
+					byte b = buffer[i];
+					if (version != null) {
+						if ((b >= '0' && b <= '9') || b == '.') {
+							version.append((char) b);
+							continue;
+						}
+						return parseVersion(version.toString());
+					}
+
+					// The marker does not repeat any prefix of itself, so a mismatch can simply start over
+					if (b == GLIBC_VERSION_MARKER[matched])
+						matched++;
+					else
+						matched = b == GLIBC_VERSION_MARKER[0] ? 1 : 0;
+
+					if (matched == GLIBC_VERSION_MARKER.length)
+						version = new StringBuilder();
+				}
+			}
+			return version == null ? null : parseVersion(version.toString());
+		} catch (IOException | SecurityException e) {
+			return null;
+		}
+	}
+
+	private static int[] parseVersion(String version) {
+		String[] parts = version.split("\\.");
+		try {
+			return parts.length < 2 ? null : new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public Flavor getFlavor() {
+		return flavor;
+	}
+
+	/**
+	 * @return The major version or -1 if unknown.
+	 */
+	public int getMajor() {
+		return major;
+	}
+
+	/**
+	 * @return The minor version or -1 if unknown.
+	 */
+	public int getMinor() {
+		return minor;
+	}
+
+	/**
+	 * @return Whether this is glibc of at least the given version.
+	 */
+	public boolean isGlibcAtLeast(int major, int minor) {
+		return flavor == Flavor.GLIBC && (this.major > major || this.major == major && this.minor >= minor);
+	}
+
+	@Override
+	public String toString() {
+		return "Libc{flavor=" + flavor + (major < 0 ? "" : ", version=" + major + "." + minor) + "}";
+	}
+
+	public enum Flavor {
+
+		/**
+		 * The GNU C library used by most distributions.
+		 */
+		GLIBC,
+		/**
+		 * musl, most notably used by Alpine Linux.
+		 */
+		MUSL,
+		/**
+		 * An unknown C library or none at all, e.g. in a distroless image with static binaries.
+		 */
+		UNKNOWN;
+
+		static Flavor fromLoader(String loader) {
+			String name = loader.substring(loader.lastIndexOf('/') + 1);
+			if (name.startsWith("ld-musl"))
+				return MUSL;
+			// ld-linux-x86-64.so.2, ld-linux-aarch64.so.1, ld-linux.so.2, ld64.so.2 (ppc64) and ld64.so.1 (s390x)
+			if (name.startsWith("ld-linux") || name.startsWith("ld64.so") || name.startsWith("ld.so"))
+				return GLIBC;
+			return UNKNOWN;
+		}
+
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The environment a Linux kernel is running in: a container, the Windows Subsystem for Linux and/or a virtual machine.
+ * These behave very differently from bare metal when it comes to I/O, e.g. overlay file systems in containers or the
+ * slow 9P file system across /mnt/c in WSL2.
+ */
+public final class LinuxEnvironment {
+
+	/**
+	 * The environment of a Linux that is not backed by a file system, about which nothing is known.
+	 */
+	static final LinuxEnvironment NONE = new LinuxEnvironment(Container.NONE, Wsl.NONE, Hypervisor.NONE);
+
+	private final Container container;
+
+	private final Wsl wsl;
+
+	private final Hypervisor hypervisor;
+
+	private LinuxEnvironment(Container container, Wsl wsl, Hypervisor hypervisor) {
+		this.container = container;
+		this.wsl = wsl;
+		this.hypervisor = hypervisor;
+	}
+
+	/**
+	 * Detects the environment from the given file system.
+	 *
+	 * @param root        The root of the file system, "/" for the host.
+	 * @param environment The environment variables of the process, only meaningful for the host.
+	 */
+	static LinuxEnvironment read(Path root, Map<String, String> environment) {
+		Wsl wsl = detectWsl(root, environment);
+		return new LinuxEnvironment(detectContainer(root, environment), wsl, detectHypervisor(root, wsl));
+	}
+
+	private static Container detectContainer(Path root, Map<String, String> environment) {
+		String cgroup = SysFiles.read(SysFiles.resolve(root, "/proc/self/cgroup"));
+		if (cgroup == null)
+			cgroup = "";
+		// Set by systemd-nspawn, LXC and Podman among others
+		String variable = environment.get("container");
+
+		if (environment.containsKey("KUBERNETES_SERVICE_HOST") || cgroup.contains("kubepods"))
+			return Container.KUBERNETES;
+		if (Files.exists(SysFiles.resolve(root, "/run/.containerenv")) || "podman".equals(variable)
+				|| cgroup.contains("libpod"))
+			return Container.PODMAN;
+		if (Files.exists(SysFiles.resolve(root, "/.dockerenv")) || cgroup.contains("/docker"))
+			return Container.DOCKER;
+		if ("lxc".equals(variable) || cgroup.contains("/lxc"))
+			return Container.LXC;
+		if (variable != null && !variable.isEmpty())
+			return Container.OTHER;
+		return Container.NONE;
+	}
+
+	private static Wsl detectWsl(Path root, Map<String, String> environment) {
+		String version = SysFiles.read(SysFiles.resolve(root, "/proc/version"));
+		if (version != null) {
+			// WSL2: "5.15.133.1-microsoft-standard-WSL2", WSL1: "4.4.0-19041-Microsoft"
+			if (version.contains("microsoft-standard") || version.contains("WSL2"))
+				return Wsl.WSL2;
+			if (version.contains("Microsoft"))
+				return Wsl.WSL1;
+		}
+
+		// Only WSL2 provides interop through a socket
+		if (environment.containsKey("WSL_INTEROP"))
+			return Wsl.WSL2;
+		if (environment.containsKey("WSL_DISTRO_NAME"))
+			return Wsl.WSL1;
+		return Wsl.NONE;
+	}
+
+	private static Hypervisor detectHypervisor(Path root, Wsl wsl) {
+		// WSL2 runs in a lightweight Hyper-V VM
+		if (wsl == Wsl.WSL2)
+			return Hypervisor.HYPER_V;
+
+		String type = SysFiles.read(SysFiles.resolve(root, "/sys/hypervisor/type"));
+		if ("xen".equals(type))
+			return Hypervisor.XEN;
+
+		boolean flag = false;
+		for (String line : SysFiles.readLines(SysFiles.resolve(root, "/proc/cpuinfo"))) {
+			if (line.startsWith("flags")) {
+				flag = (line + ' ').contains(" hypervisor ");
+				break;
+			}
+		}
+
+		String vendor = SysFiles.read(SysFiles.resolve(root, "/sys/class/dmi/id/sys_vendor"));
+		String product = SysFiles.read(SysFiles.resolve(root, "/sys/class/dmi/id/product_name"));
+		boolean virtualized = flag || type != null && !type.isEmpty();
+		Hypervisor hypervisor = Hypervisor.fromDmi((vendor == null ? "" : vendor) + ' '
+				+ (product == null ? "" : product), virtualized);
+
+		if (hypervisor != Hypervisor.NONE)
+			return hypervisor;
+		return virtualized ? Hypervisor.UNKNOWN : Hypervisor.NONE;
+	}
+
+	public Container getContainer() {
+		return container;
+	}
+
+	public Wsl getWsl() {
+		return wsl;
+	}
+
+	public Hypervisor getHypervisor() {
+		return hypervisor;
+	}
+
+	public boolean isContainerized() {
+		return container != Container.NONE;
+	}
+
+	public boolean isWsl() {
+		return wsl != Wsl.NONE;
+	}
+
+	public boolean isVirtualized() {
+		return hypervisor != Hypervisor.NONE;
+	}
+
+	@Override
+	public String toString() {
+		return "LinuxEnvironment{container=" + container + ", wsl=" + wsl + ", hypervisor=" + hypervisor + "}";
+	}
+
+	public enum Container {
+
+		NONE, DOCKER, PODMAN, KUBERNETES, LXC,
+		/**
+		 * A container of a runtime that is not recognized, e.g. systemd-nspawn.
+		 */
+		OTHER
+
+	}
+
+	public enum Wsl {
+
+		NONE,
+		/**
+		 * The original WSL, which translates system calls instead of running a real Linux kernel.
+		 */
+		WSL1,
+		/**
+		 * WSL running a real Linux kernel in a lightweight virtual machine.
+		 */
+		WSL2
+
+	}
+
+	public enum Hypervisor {
+
+		NONE, KVM, XEN, VMWARE, HYPER_V, VIRTUALBOX,
+		/**
+		 * Running in a virtual machine, but the hypervisor is not recognized.
+		 */
+		UNKNOWN;
+
+		/**
+		 * Recognizes the hypervisor by the system vendor and product name the firmware reports.
+		 *
+		 * @param vendorAndProduct The system vendor and product name, separated by a space.
+		 * @param virtualized      Whether the processor reports running under a hypervisor. Cloud vendors also
+		 *                         report themselves on their bare metal instances, so they are only trusted if it
+		 *                         does.
+		 */
+		static Hypervisor fromDmi(String vendorAndProduct, boolean virtualized) {
+			String dmi = vendorAndProduct.toLowerCase(Locale.ROOT);
+			if (dmi.contains("qemu") || dmi.contains("kvm"))
+				return KVM;
+			// Amazon and Google use KVM based hypervisors, except on EC2 *.metal instances
+			if (virtualized && (dmi.contains("amazon ec2") || dmi.contains("google compute engine")))
+				return KVM;
+			if (dmi.contains("vmware"))
+				return VMWARE;
+			if (dmi.contains("innotek") || dmi.contains("virtualbox"))
+				return VIRTUALBOX;
+			if (dmi.contains("microsoft corporation") && dmi.contains("virtual machine"))
+				return HYPER_V;
+			if (dmi.contains("xen"))
+				return XEN;
+			return NONE;
+		}
+
+	}
+
+}
@@ -23,20 +23,400 @@
  */
 package io.github.cegredev.josi;
 
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 public class LinuxOS extends OperatingSystem {
 
 	private final Distribution distro;
 
+	/**
+	 * The root of the file system this operating system was detected on, used to read procfs and sysfs. Is {@code
+	 * null} if the operating system is not backed by a file system, e.g. when it was decoded or parsed from a user
+	 * agent.
+	 */
+	private final Path root;
+
+	private final Lazy<CGroupLimits> cgroupLimits;
+
+	private final Lazy<NumaTopology> numaTopology;
+
+	private final Lazy<CpuInfo> cpuInfo;
+
+	private final Lazy<CpuCaches> cpuCaches;
+
+	private final Lazy<CoreTopology> coreTopology;
+
+	private final Lazy<KernelVersion> kernelVersion;
+
+	private final Lazy<LinuxEnvironment> environment;
+
+	private final Lazy<Libc> libc;
+
+	private final Lazy<HugePages> hugePages;
+
+	private final Lazy<MountTable> mountTable;
+
+	private final Lazy<ProcessLimits> processLimits;
+
+	private final Lazy<CloudInfo> cloudInfo;
+
+	private final Lazy<SecurityProfile> securityProfile;
+
+	/**
+	 * The block devices that were already looked up, keyed by their device number.
+	 */
+	private final ConcurrentMap<Long, BlockDevice> blockDevices = new ConcurrentHashMap<>();
+
 	public LinuxOS(Distribution distro) {
+		this(distro, null);
+	}
+
+	/**
+	 * @param distro The distribution.
+	 * @param root   The root of the file system the distribution was detected on, usually "/". Host specific
+	 *               information like {@link #getCGroupLimits()} is read from there.
+	 */
+	public LinuxOS(Distribution distro, Path root) {
 		super(CurrentOS.Family.LINUX);
 
 		this.distro = distro;
+		this.root = root;
+
+		this.cgroupLimits = new Lazy<>(() -> root == null ? CGroupLimits.NONE : CGroupLimits.read(root));
+		this.numaTopology = new Lazy<>(() -> root == null ? NumaTopology.NONE : NumaTopology.read(root));
+		this.cpuInfo = new Lazy<>(() -> root == null ? new CpuInfo(Architecture.current(), 0, null)
+				: CpuInfo.read(root, Architecture.current()));
+		this.cpuCaches = new Lazy<>(() -> root == null ? CpuCaches.NONE : CpuCaches.read(root));
+		this.coreTopology = new Lazy<>(() -> root == null ? CoreTopology.NONE : CoreTopology.read(root));
+		this.kernelVersion = new Lazy<>(this::readKernelVersion);
+		// The environment variables only describe the file system of the host
+		this.environment = new Lazy<>(() -> root == null ? LinuxEnvironment.NONE : LinuxEnvironment.read(root,
+				isHostRoot() ? System.getenv() : Collections.emptyMap()));
+		this.libc = new Lazy<>(() -> root == null ? Libc.UNKNOWN : Libc.read(root));
+		this.hugePages = new Lazy<>(() -> root == null ? HugePages.NONE : HugePages.read(root));
+		this.mountTable = new Lazy<>(() -> root == null ? MountTable.EMPTY : MountTable.read(root));
+		this.processLimits = new Lazy<>(() -> root == null ? ProcessLimits.UNKNOWN : ProcessLimits.read(root));
+		this.cloudInfo = new Lazy<>(() -> root == null ? CloudInfo.NONE : CloudInfo.read(root));
+		this.securityProfile = new Lazy<>(this::readSecurityProfile);
 	}
 
 	public Distribution getDistro() {
 		return distro;
 	}
 
+	/**
+	 * The control group limits of the current process, read on first access. Is unlimited if this operating system
+	 * is not backed by a file system.
+	 *
+	 * @return The last read control group limits.
+	 * @see #refreshCGroupLimits()
+	 */
+	public CGroupLimits getCGroupLimits() {
+		return cgroupLimits.get();
+	}
+
+	/**
+	 * Reads the control group limits again, for processes whose limits may be changed while they are running.
+	 *
+	 * @return The new control group limits, which are returned by {@link #getCGroupLimits()} from now on.
+	 */
+	public CGroupLimits refreshCGroupLimits() {
+		CGroupLimits limits = getCGroupLimits().refresh();
+		cgroupLimits.set(limits);
+		return limits;
+	}
+
+	/**
+	 * The NUMA topology of the machine, read on first access. Has no nodes if this operating system is not backed by
+	 * a file system.
+	 */
+	public NumaTopology getNumaTopology() {
+		return numaTopology.get();
+	}
+
+	/**
+	 * The processor as reported by /proc/cpuinfo, read on first access. Has no features if this operating system is
+	 * not backed by a file system.
+	 */
+	public CpuInfo getCpuInfo() {
+		return cpuInfo.get();
+	}
+
+	/**
+	 * The cache hierarchy of the processors, read on first access. Has no caches if this operating system is not
+	 * backed by a file system.
+	 */
+	public CpuCaches getCpuCaches() {
+		return cpuCaches.get();
+	}
+
+	/**
+	 * The cores of the processors with their performance classes and frequency governors, read on first access.
+	 * Has no CPUs if this operating system is not backed by a file system.
+	 */
+	public CoreTopology getCoreTopology() {
+		return coreTopology.get();
+	}
+
+	/**
+	 * The version of the running kernel, read on first access. Is {@link KernelVersion#UNKNOWN} if this operating
+	 * system is not backed by a file system.
+	 */
+	public KernelVersion getKernelVersion() {
+		return kernelVersion.get();
+	}
+
+	private KernelVersion readKernelVersion() {
+		if (root == null)
+			return KernelVersion.UNKNOWN;
+
+		String release = SysFiles.read(SysFiles.resolve(root, "/proc/sys/kernel/osrelease"));
+		// procfs may be hidden in a sandbox, but the JVM still knows the release of the host it runs on
+		if (release == null && isHostRoot())
+			release = System.getProperty("os.version");
+		return KernelVersion.parse(release);
+	}
+
+	/**
+	 * @return Whether this operating system is backed by the file system of the host the JVM runs on.
+	 */
+	boolean isHostRoot() {
+		return root != null && root.getFileSystem() == FileSystems.getDefault() && root.isAbsolute()
+				&& root.getParent() == null;
+	}
+
+	/**
+	 * The container, WSL and virtualization environment, detected on first access. Is bare metal if this operating
+	 * system is not backed by a file system.
+	 */
+	public LinuxEnvironment getEnvironment() {
+		return environment.get();
+	}
+
+	/**
+	 * The C library, detected on first access. Is unknown if this operating system is not backed by a file system.
+	 */
+	public Libc getLibc() {
+		return libc.get();
+	}
+
+	/**
+	 * The huge page support of the kernel, read on first access. Is unsupported if this operating system is not
+	 * backed by a file system.
+	 */
+	public HugePages getHugePages() {
+		return hugePages.get();
+	}
+
+	/**
+	 * Opens a sampler for the memory statistics of the kernel, for processes that adapt to the memory available on
+	 * the machine.
+	 *
+	 * @return The sampler, which has already taken its first sample and has to be closed.
+	 * @throws IOException           If /proc/meminfo cannot be read.
+	 * @throws IllegalStateException If this operating system is not backed by a file system.
+	 */
+	public MemorySampler openMemorySampler() throws IOException {
+		if (root == null)
+			throw new IllegalStateException("There is no file system to read the memory statistics of " + this);
+		return MemorySampler.open(root);
+	}
+
+	/**
+	 * Opens a monitor for the system-wide pressure stall information of /proc/pressure.
+	 *
+	 * @return The monitor, which has already taken its first sample and has to be closed.
+	 * @throws IOException           If PSI is not available, e.g. because the kernel is older than 4.20.
+	 * @throws IllegalStateException If this operating system is not backed by a file system.
+	 */
+	public PressureMonitor openPressureMonitor() throws IOException {
+		if (root == null)
+			throw new IllegalStateException("There is no file system to read the pressure of " + this);
+		return PressureMonitor.open(SysFiles.resolve(root, "/proc/pressure"), false);
+	}
+
+	/**
+	 * Opens a monitor for the pressure stall information of the process's control group, which only includes the
+	 * stalls of the tasks in that group.
+	 *
+	 * @return The monitor, which has already taken its first sample and has to be closed.
+	 * @throws IOException           If PSI is not available or cgroup v2 is not used.
+	 * @throws IllegalStateException If this operating system is not backed by a file system.
+	 */
+	public PressureMonitor openCGroupPressureMonitor() throws IOException {
+		if (root == null)
+			throw new IllegalStateException("There is no file system to read the pressure of " + this);
+
+		Path directory = getCGroupLimits().getUnifiedDirectory();
+		if (directory == null)
+			throw new IOException("The process is not in a cgroup v2 hierarchy");
+		return PressureMonitor.open(directory, true);
+	}
+
+	/**
+	 * The cloud provider and instance type, read on first access. Is no cloud if this operating system is not backed
+	 * by a file system.
+	 */
+	public CloudInfo getCloudInfo() {
+		return cloudInfo.get();
+	}
+
+	/**
+	 * The resource limits of the process and the kernel tunables, read on first access. Are unknown if this operating
+	 * system is not backed by a file system.
+	 *
+	 * @see #refreshProcessLimits()
+	 */
+	public ProcessLimits getProcessLimits() {
+		return processLimits.get();
+	}
+
+	/**
+	 * Reads the limits again, e.g. after they were raised with {@code prlimit}.
+	 *
+	 * @return The new limits, which are returned by {@link #getProcessLimits()} from now on.
+	 */
+	public ProcessLimits refreshProcessLimits() {
+		ProcessLimits limits = root == null ? ProcessLimits.UNKNOWN : ProcessLimits.read(root);
+		processLimits.set(limits);
+		return limits;
+	}
+
+	/**
+	 * The capabilities, seccomp mode and security modules of the process, read on first access. Is unknown if this
+	 * operating system is not backed by a file system.
+	 *
+	 * @see #refreshSecurityProfile()
+	 */
+	public SecurityProfile getSecurityProfile() {
+		return securityProfile.get();
+	}
+
+	/**
+	 * Reads the profile again, e.g. after capabilities were dropped. The locked memory limit is taken from
+	 * {@link #getProcessLimits()}, so refresh those first if they changed.
+	 *
+	 * @return The new profile, which is returned by {@link #getSecurityProfile()} from now on.
+	 */
+	public SecurityProfile refreshSecurityProfile() {
+		SecurityProfile profile = readSecurityProfile();
+		securityProfile.set(profile);
+		return profile;
+	}
+
+	private SecurityProfile readSecurityProfile() {
+		return root == null ? SecurityProfile.UNKNOWN : SecurityProfile.read(root, getProcessLimits());
+	}
+
+	/**
+	 * The mounts of the process, read on first access. Is empty if this operating system is not backed by a file
+	 * system.
+	 *
+	 * @see #refreshMountTable()
+	 */
+	public MountTable getMountTable() {
+		return mountTable.get();
+	}
+
+	/**
+	 * Reads the mounts again, for processes that need to notice file systems being mounted while they run.
+	 *
+	 * @return The new mount table, which is returned by {@link #getMountTable()} from now on.
+	 */
+	public MountTable refreshMountTable() {
+		MountTable table = getMountTable().refresh();
+		mountTable.set(table);
+		return table;
+	}
+
+	/**
+	 * Finds the mount the given path belongs to, resolving symbolic links if the path exists on the host.
+	 *
+	 * @param path A path of this operating system, which does not need to exist.
+	 * @return The mount or {@code null} if it is unknown.
+	 */
+	public Mount getMount(Path path) {
+		return getMountTable().find(normalize(path));
+	}
+
+	/**
+	 * Finds the block device the file system containing the given path is stored on. The characteristics of each
+	 * device are only read once, the mount is looked up in the {@link #getMountTable() mount table}.
+	 *
+	 * @param path A path of this operating system, which does not need to exist.
+	 * @return The block device or {@code null} if the path does not belong to a block device, e.g. because it is on
+	 * a tmpfs or overlayfs, or if this operating system is not backed by a file system. File systems reporting an
+	 * anonymous device, like btrfs, are looked up by the device node they were mounted from.
+	 */
+	public BlockDevice getBlockDevice(Path path) {
+		if (root == null)
+			return null;
+
+		Mount mount = getMount(path);
+		if (mount == null)
+			return null;
+
+		long key = ((long) mount.getMajor() << 32) | mount.getMinor();
+		// btrfs and similar report an anonymous device, but may still be stored on the device they were mounted from
+		if (mount.getMajor() == 0 && (key = BlockDevice.readDeviceNumber(root, mount.getSource())) < 0)
+			return null;
+
+		BlockDevice device = blockDevices.get(key);
+		if (device == null) {
+			device = BlockDevice.read(root, (int) (key >>> 32), (int) key);
+			if (device != null)
+				blockDevices.putIfAbsent(key, device);
+		}
+		return device;
+	}
+
+	/**
+	 * @return The absolute path without "." and "..", and without symbolic links if it exists on the host.
+	 */
+	private String normalize(Path path) {
+		if (isHostRoot()) {
+			try {
+				return path.toRealPath().toString();
+			} catch (IOException | SecurityException e) {
+				// Does not exist (yet)
+			}
+			path = path.toAbsolutePath();
+		}
+		return path.normalize().toString();
+	}
+
+	Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Only compares the distribution, not the file system it was detected on.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof LinuxOS))
+			return false;
+
+		return distro == ((LinuxOS) o).distro;
+	}
+
+	@Override
+	public int hashCode() {
+		return distro.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "LinuxOS{distro=" + distro + "}";
+	}
+
 	public enum Distribution {
 
 		DEBIAN, UBUNTU, GENTOO, LINUX_MINT, RED_HAT_ENTERPRISE_LINUX, CENTOS, FEDORA, ARCH_LINUX,
@@ -44,6 +424,10 @@ public class LinuxOS extends OperatingSystem {
 		 * Suse/OpenSUSE and any child-distributions.
 		 */
 		SUSE,
+		/**
+		 * Alpine Linux, which is built on musl instead of glibc, see {@link Libc}.
+		 */
+		ALPINE,
 		/**
 		 * An unknown or at least unrecognizable Linux based operating system.
 		 */
@@ -81,6 +465,8 @@ public class LinuxOS extends OperatingSystem {
 				// https://www.cyberciti.biz/faq/what-version-of-redhat-linux-am-i-running/
 				case "rhel":
 					return RED_HAT_ENTERPRISE_LINUX;
+				case "alpine":
+					return ALPINE;
 				default:
 					return UNKNOWN;
 			}
@@ -43,4 +43,25 @@ public class MacOS extends OperatingSystem {
 		return major;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof MacOS))
+			return false;
+
+		MacOS other = (MacOS) o;
+		return major == other.major && minor == other.minor;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * major + minor;
+	}
+
+	@Override
+	public String toString() {
+		return "MacOS{major=" + major + ", minor=" + minor + "}";
+	}
+
 }
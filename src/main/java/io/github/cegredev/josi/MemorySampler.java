@@ -0,0 +1,280 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Samples the memory statistics of /proc/meminfo and the overcommit mode of the kernel, meant to be called
+ * periodically, e.g. to size caches by the memory that is currently available.
+ * <p>
+ * The files are kept open and read with positional reads into a reused direct buffer, which is parsed in place into
+ * primitive fields, so taking a sample does not allocate any objects. Instances are not thread-safe, the values of
+ * the last sample are read through the getters.
+ */
+public final class MemorySampler implements Closeable {
+
+	/**
+	 * /proc/meminfo is about 1.5 KiB, this leaves plenty of room for fields added by future kernels.
+	 */
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private static final int MEM_TOTAL = 0, MEM_FREE = 1, MEM_AVAILABLE = 2, CACHED = 3, SWAP_TOTAL = 4,
+			SWAP_FREE = 5, COMMIT_LIMIT = 6, COMMITTED_AS = 7;
+
+	private static final byte[][] KEYS = keys("MemTotal", "MemFree", "MemAvailable", "Cached", "SwapTotal",
+			"SwapFree", "CommitLimit", "Committed_AS");
+
+	private final FileChannel meminfo, overcommit;
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	private final long[] values = new long[KEYS.length];
+
+	private int overcommitMode = -1;
+
+	private long timestamp;
+
+	private MemorySampler(FileChannel meminfo, FileChannel overcommit) {
+		this.meminfo = meminfo;
+		this.overcommit = overcommit;
+	}
+
+	private static byte[][] keys(String... names) {
+		byte[][] keys = new byte[names.length][];
+		for (int i = 0; i < names.length; i++)
+			keys[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+		return keys;
+	}
+
+	/**
+	 * Opens the files of the given file system and takes the first sample.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 * @return The sampler, which has to be closed.
+	 * @throws IOException If /proc/meminfo cannot be opened or read.
+	 */
+	static MemorySampler open(Path root) throws IOException {
+		FileChannel meminfo = FileChannel.open(SysFiles.resolve(root, "/proc/meminfo"), StandardOpenOption.READ);
+
+		// Not readable in every sandbox, the memory statistics are still useful without it
+		FileChannel overcommit = null;
+		Path overcommitFile = SysFiles.resolve(root, "/proc/sys/vm/overcommit_memory");
+		if (Files.isReadable(overcommitFile)) {
+			try {
+				overcommit = FileChannel.open(overcommitFile, StandardOpenOption.READ);
+			} catch (IOException e) {
+				// See above
+			}
+		}
+
+		MemorySampler sampler = new MemorySampler(meminfo, overcommit);
+		try {
+			sampler.sample();
+		} catch (IOException e) {
+			sampler.close();
+			throw e;
+		}
+		return sampler;
+	}
+
+	/**
+	 * Reads the files again and updates the values returned by the getters.
+	 *
+	 * @throws IOException If the files cannot be read.
+	 */
+	public void sample() throws IOException {
+		for (int i = 0; i < values.length; i++)
+			values[i] = -1;
+
+		int length = read(meminfo);
+		int position = 0;
+		while (position < length) {
+			int key = matchKey(position, length);
+			int end = position;
+			while (end < length && buffer.get(end) != '\n')
+				end++;
+
+			if (key >= 0) {
+				// "MemAvailable:   40000000 kB", all values of interest are in kB
+				long value = parseNumber(position + KEYS[key].length + 1, end);
+				values[key] = value < 0 ? -1 : value * 1024;
+			}
+			position = end + 1;
+		}
+
+		if (overcommit != null) {
+			int overcommitLength = read(overcommit);
+			long mode = parseNumber(0, overcommitLength);
+			overcommitMode = mode < 0 ? -1 : (int) mode;
+		}
+
+		timestamp = System.nanoTime();
+	}
+
+	private int read(FileChannel channel) throws IOException {
+		buffer.clear();
+		int total = 0, read;
+		while (buffer.hasRemaining() && (read = channel.read(buffer, total)) > 0)
+			total += read;
+		return total;
+	}
+
+	/**
+	 * @return The index of the key the line starting at the given position belongs to, -1 if none.
+	 */
+	private int matchKey(int position, int length) {
+		for (int key = 0; key < KEYS.length; key++) {
+			byte[] name = KEYS[key];
+			int colon = position + name.length;
+			if (colon >= length || buffer.get(colon) != ':')
+				continue;
+
+			boolean matches = true;
+			for (int i = 0; i < name.length && matches; i++)
+				matches = buffer.get(position + i) == name[i];
+			if (matches)
+				return key;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The first number between the positions or -1 if there is none.
+	 */
+	private long parseNumber(int start, int end) {
+		int position = start;
+		while (position < end && buffer.get(position) == ' ')
+			position++;
+
+		long value = 0;
+		boolean digits = false;
+		for (; position < end; position++) {
+			byte b = buffer.get(position);
+			if (b < '0' || b > '9')
+				break;
+			value = value * 10 + (b - '0');
+			digits = true;
+		}
+		return digits ? value : -1;
+	}
+
+	/**
+	 * @return The total usable memory in bytes or -1 if unknown.
+	 */
+	public long getMemTotal() {
+		return values[MEM_TOTAL];
+	}
+
+	/**
+	 * @return The completely unused memory in bytes or -1 if unknown.
+	 */
+	public long getMemFree() {
+		return values[MEM_FREE];
+	}
+
+	/**
+	 * The kernel's estimate of how much memory can be allocated without swapping, which includes reclaimable caches.
+	 * This is the value to size caches by.
+	 *
+	 * @return The available memory in bytes or -1 if unknown (kernels before 3.14).
+	 */
+	public long getMemAvailable() {
+		return values[MEM_AVAILABLE];
+	}
+
+	/**
+	 * @return The memory used by the page cache in bytes or -1 if unknown.
+	 */
+	public long getCached() {
+		return values[CACHED];
+	}
+
+	/**
+	 * @return The total swap space in bytes or -1 if unknown.
+	 */
+	public long getSwapTotal() {
+		return values[SWAP_TOTAL];
+	}
+
+	/**
+	 * @return The unused swap space in bytes or -1 if unknown.
+	 */
+	public long getSwapFree() {
+		return values[SWAP_FREE];
+	}
+
+	/**
+	 * @return The memory that can be committed in overcommit mode 2 in bytes or -1 if unknown.
+	 */
+	public long getCommitLimit() {
+		return values[COMMIT_LIMIT];
+	}
+
+	/**
+	 * @return The memory currently committed by all processes in bytes or -1 if unknown.
+	 */
+	public long getCommittedAs() {
+		return values[COMMITTED_AS];
+	}
+
+	/**
+	 * @return The value of vm.overcommit_memory: 0 for heuristic overcommit, 1 for always overcommitting and 2 for
+	 * never overcommitting beyond {@link #getCommitLimit()}; -1 if unknown.
+	 */
+	public int getOvercommitMode() {
+		return overcommitMode;
+	}
+
+	/**
+	 * @return The {@link System#nanoTime()} of the last sample.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			meminfo.close();
+		} finally {
+			if (overcommit != null)
+				overcommit.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MemorySampler{memAvailable=" + getMemAvailable() + ", cached=" + getCached() + ", swapFree="
+				+ getSwapFree() + ", overcommitMode=" + overcommitMode + "}";
+	}
+
+}
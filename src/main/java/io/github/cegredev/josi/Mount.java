@@ -0,0 +1,330 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A single line of {@code /proc/self/mountinfo}, see https://man7.org/linux/man-pages/man5/proc.5.html
+ *
+ * @see MountTable
+ */
+public final class Mount {
+
+	private final int major, minor;
+
+	private final String root, mountPoint, options, fsType, source, superOptions;
+
+	private final FileSystemType type;
+
+	Mount(int major, int minor, String root, String mountPoint, String options, String fsType, String source,
+		  String superOptions) {
+		this.major = major;
+		this.minor = minor;
+		this.root = root;
+		this.mountPoint = mountPoint;
+		this.options = options;
+		this.fsType = fsType;
+		this.source = source;
+		this.superOptions = superOptions;
+		this.type = FileSystemType.fromName(fsType);
+	}
+
+	/**
+	 * Parses the lines of a mountinfo file, skipping any that are malformed.
+	 */
+	static List<Mount> parse(List<String> lines) {
+		List<Mount> mounts = new ArrayList<>(lines.size());
+		for (String line : lines) {
+			Mount mount = parse(line);
+			if (mount != null)
+				mounts.add(mount);
+		}
+		return mounts;
+	}
+
+	/**
+	 * Parses a line like {@code 36 35 98:0 /mnt1 /mnt/parent rw,noatime master:1 - ext3 /dev/root rw,errors=continue}.
+	 *
+	 * @return The mount or {@code null} if the line is malformed.
+	 */
+	static Mount parse(String line) {
+		String[] fields = line.split(" ");
+		// Mount ID, parent ID, major:minor, root, mount point, options, optional fields..., "-", type, source, super
+		if (fields.length < 10)
+			return null;
+
+		int separator = -1;
+		for (int i = 6; i < fields.length; i++) {
+			if (fields[i].equals("-")) {
+				separator = i;
+				break;
+			}
+		}
+		if (separator < 0 || separator + 2 >= fields.length)
+			return null;
+
+		int colon = fields[2].indexOf(':');
+		if (colon < 0)
+			return null;
+
+		try {
+			return new Mount(Integer.parseInt(fields[2].substring(0, colon)),
+					Integer.parseInt(fields[2].substring(colon + 1)), unescape(fields[3]), unescape(fields[4]),
+					fields[5], fields[separator + 1], unescape(fields[separator + 2]),
+					separator + 3 < fields.length ? fields[separator + 3] : "");
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Undoes the octal escaping of spaces, tabs, newlines and backslashes, e.g. "\040" becomes " ".
+	 */
+	private static String unescape(String field) {
+		if (field.indexOf('\\') < 0)
+			return field;
+
+		StringBuilder builder = new StringBuilder(field.length());
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == '\\' && isOctal(field, i + 1)) {
+				builder.append((char) Integer.parseInt(field.substring(i + 1, i + 4), 8));
+				i += 3;
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static boolean isOctal(String field, int start) {
+		if (start + 3 > field.length())
+			return false;
+
+		for (int i = start; i < start + 3; i++)
+			if (field.charAt(i) < '0' || field.charAt(i) > '7')
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return Whether the given option is part of the super block options, e.g. "dax" or "cpu" for cgroup v1.
+	 */
+	public boolean hasSuperOption(String option) {
+		return containsOption(superOptions, option);
+	}
+
+	/**
+	 * @return Whether the given option is part of the mount options, e.g. "noatime" or "ro".
+	 */
+	public boolean hasOption(String option) {
+		return containsOption(options, option);
+	}
+
+	/**
+	 * @return Whether the list contains the option itself or the option with any value, e.g. "dax=always" for "dax".
+	 */
+	private static boolean containsOption(String list, String option) {
+		for (int start = 0; start <= list.length(); ) {
+			int end = list.indexOf(',', start);
+			if (end < 0)
+				end = list.length();
+
+			if (list.startsWith(option, start) && (start + option.length() == end
+					|| list.charAt(start + option.length()) == '='))
+				return true;
+			start = end + 1;
+		}
+		return false;
+	}
+
+	public boolean isReadOnly() {
+		return hasOption("ro");
+	}
+
+	/**
+	 * @return Whether access times are not updated, which saves a write for every read.
+	 */
+	public boolean isNoAtime() {
+		return hasOption("noatime");
+	}
+
+	/**
+	 * @return Whether memory mapped files are accessed directly on persistent memory, bypassing the page cache.
+	 */
+	public boolean isDax() {
+		return (hasOption("dax") || hasSuperOption("dax")) && !(options + ',' + superOptions).contains("dax=never");
+	}
+
+	public int getMajor() {
+		return major;
+	}
+
+	public int getMinor() {
+		return minor;
+	}
+
+	/**
+	 * @return The directory within the file system that is mounted, usually "/".
+	 */
+	public String getRoot() {
+		return root;
+	}
+
+	public String getMountPoint() {
+		return mountPoint;
+	}
+
+	/**
+	 * @return The comma-separated options of the mount, e.g. "rw,noatime".
+	 */
+	public String getOptions() {
+		return options;
+	}
+
+	/**
+	 * @return The name of the file system type as reported by the kernel, e.g. "ext4" or "fuse.sshfs".
+	 */
+	public String getFsType() {
+		return fsType;
+	}
+
+	public FileSystemType getType() {
+		return type;
+	}
+
+	/**
+	 * @return The device or remote location that is mounted, e.g. "/dev/sda1" or "server:/export".
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return The comma-separated options of the file system itself, e.g. "rw,errors=remount-ro".
+	 */
+	public String getSuperOptions() {
+		return superOptions;
+	}
+
+	@Override
+	public String toString() {
+		return "Mount{mountPoint=" + mountPoint + ", fsType=" + fsType + ", source=" + source + ", options="
+				+ options + "}";
+	}
+
+	/**
+	 * File system types whose I/O characteristics differ enough to choose different strategies for them.
+	 */
+	public enum FileSystemType {
+
+		EXT4, XFS, BTRFS, ZFS,
+		/**
+		 * Memory backed file systems, i.e. tmpfs and ramfs.
+		 */
+		TMPFS,
+		/**
+		 * Union file systems used by containers, where the first write to a file copies it up entirely.
+		 */
+		OVERLAY,
+		/**
+		 * NFS, on which memory mapping files is unsafe and locking unreliable.
+		 */
+		NFS,
+		/**
+		 * Other network file systems like CIFS/SMB, CephFS or 9P (used by WSL2 for Windows drives).
+		 */
+		NETWORK,
+		/**
+		 * File systems in user space, including sshfs and most cloud storage mounts.
+		 */
+		FUSE,
+		/**
+		 * Virtual file systems like proc, sysfs or cgroup.
+		 */
+		VIRTUAL,
+		OTHER;
+
+		static FileSystemType fromName(String name) {
+			name = name.toLowerCase(Locale.ROOT);
+			if (name.startsWith("fuse"))
+				return FUSE;
+
+			switch (name) {
+				case "ext4":
+					return EXT4;
+				case "xfs":
+					return XFS;
+				case "btrfs":
+					return BTRFS;
+				case "zfs":
+					return ZFS;
+				case "tmpfs":
+				case "ramfs":
+					return TMPFS;
+				case "overlay":
+				case "aufs":
+					return OVERLAY;
+				case "nfs":
+				case "nfs4":
+					return NFS;
+				case "cifs":
+				case "smb3":
+				case "ceph":
+				case "9p":
+				case "glusterfs":
+				case "lustre":
+				case "gpfs":
+					return NETWORK;
+				case "proc":
+				case "sysfs":
+				case "devtmpfs":
+				case "devpts":
+				case "cgroup":
+				case "cgroup2":
+				case "securityfs":
+				case "debugfs":
+				case "tracefs":
+				case "mqueue":
+				case "bpf":
+				case "hugetlbfs":
+					return VIRTUAL;
+				default:
+					return OTHER;
+			}
+		}
+
+		/**
+		 * @return Whether the data is stored on another machine, which makes memory mapping and locking unreliable.
+		 */
+		public boolean isNetwork() {
+			return this == NFS || this == NETWORK;
+		}
+
+	}
+
+}
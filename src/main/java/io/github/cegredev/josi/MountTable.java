@@ -0,0 +1,155 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The mounts of a Linux system as listed by {@code /proc/self/mountinfo}, with a lookup from a path to the mount it
+ * belongs to. Use it to choose an I/O strategy per file, e.g. to avoid memory mapping files on NFS.
+ * <p>
+ * Instances are immutable snapshots. A lookup only costs one hash lookup per directory level of the path.
+ * {@link #refresh()} reads mountinfo again, but only parses the lines that changed.
+ */
+public final class MountTable {
+
+	/**
+	 * The table of a system without any mounts.
+	 */
+	static final MountTable EMPTY = new MountTable(null, Collections.emptyList(), Collections.emptyMap());
+
+	private final Path file;
+
+	private final List<Mount> mounts;
+
+	/**
+	 * The unparsed lines of mountinfo, used to reuse the mounts that did not change when refreshing.
+	 */
+	private final Map<String, Mount> lines;
+
+	/**
+	 * The visible mount of each mount point.
+	 */
+	private final Map<String, Mount> mountPoints;
+
+	private MountTable(Path file, List<Mount> mounts, Map<String, Mount> lines) {
+		this.file = file;
+		this.mounts = mounts;
+		this.lines = lines;
+
+		this.mountPoints = new HashMap<>(mounts.size() * 2);
+		// Later mounts hide earlier ones on the same mount point
+		for (Mount mount : mounts)
+			mountPoints.put(mount.getMountPoint(), mount);
+	}
+
+	/**
+	 * Reads the mount table of the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static MountTable read(Path root) {
+		return read(SysFiles.resolve(root, "/proc/self/mountinfo"), Collections.emptyMap());
+	}
+
+	private static MountTable read(Path file, Map<String, Mount> previous) {
+		List<String> content = SysFiles.readLines(file);
+		List<Mount> mounts = new ArrayList<>(content.size());
+		Map<String, Mount> lines = new HashMap<>(content.size() * 2);
+		for (String line : content) {
+			Mount mount = previous.get(line);
+			if (mount == null)
+				mount = Mount.parse(line);
+
+			if (mount != null) {
+				mounts.add(mount);
+				lines.put(line, mount);
+			}
+		}
+		return new MountTable(file, Collections.unmodifiableList(mounts), lines);
+	}
+
+	/**
+	 * Reads the mount table again, reusing the mounts that did not change.
+	 *
+	 * @return The new snapshot, which is this one if nothing changed.
+	 */
+	public MountTable refresh() {
+		if (file == null)
+			return this;
+
+		MountTable table = read(file, lines);
+		// Unchanged lines yield the very same mounts, so this compares the lines and their order
+		return table.mounts.equals(mounts) ? this : table;
+	}
+
+	/**
+	 * Finds the mount the given path belongs to. Symbolic links are not resolved, use {@link Path#toRealPath} first
+	 * if the path may contain any.
+	 *
+	 * @param path The path, relative paths are resolved against the working directory.
+	 * @return The mount or {@code null} if no mount contains the path.
+	 */
+	public Mount find(Path path) {
+		return find(path.toAbsolutePath().normalize().toString());
+	}
+
+	/**
+	 * Finds the mount the given normalized absolute path belongs to.
+	 *
+	 * @param path The path, e.g. "/var/lib/data".
+	 * @return The mount or {@code null} if no mount contains the path.
+	 */
+	public Mount find(String path) {
+		String current = path;
+		while (true) {
+			Mount mount = mountPoints.get(current);
+			if (mount != null)
+				return mount;
+			if (current.isEmpty() || current.equals("/"))
+				return null;
+
+			int slash = current.lastIndexOf('/');
+			current = slash <= 0 ? "/" : current.substring(0, slash);
+		}
+	}
+
+	/**
+	 * @return All mounts in the order they were mounted, including the ones hidden by later mounts.
+	 */
+	public List<Mount> getMounts() {
+		return mounts;
+	}
+
+	@Override
+	public String toString() {
+		return "MountTable{mounts=" + mounts.size() + "}";
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Finds the highest priority match of a fixed set of ASCII patterns in a single pass over the input, using an
+ * Aho-Corasick automaton that is compiled into a dense transition table once. Matching does not allocate, which is
+ * why the result is packed into a {@code long} instead of being returned as an object.
+ */
+final class MultiPatternMatcher {
+
+	/**
+	 * Returned by {@link #match(CharSequence)} if none of the patterns occur in the input.
+	 */
+	static final long NO_MATCH = -1;
+
+	private static final int ALPHABET = 128;
+
+	/**
+	 * The transition table, {@code transitions[state * ALPHABET + c]} is the state after reading {@code c}.
+	 */
+	private final int[] transitions;
+
+	/**
+	 * The highest priority (i.e. lowest index) pattern ending in each state, or {@code Integer.MAX_VALUE}.
+	 */
+	private final int[] outputs;
+
+	/**
+	 * @param patterns The patterns to search for. A pattern's index is its priority, lower indices win.
+	 */
+	MultiPatternMatcher(String... patterns) {
+		List<int[]> gotos = new ArrayList<>();
+		List<Integer> outs = new ArrayList<>();
+		gotos.add(newState());
+		outs.add(Integer.MAX_VALUE);
+
+		for (int p = 0; p < patterns.length; p++) {
+			int state = 0;
+			for (char c : patterns[p].toCharArray()) {
+				if (c >= ALPHABET)
+					throw new IllegalArgumentException("Only ASCII patterns are supported: " + patterns[p]);
+
+				if (gotos.get(state)[c] < 0) {
+					gotos.get(state)[c] = gotos.size();
+					gotos.add(newState());
+					outs.add(Integer.MAX_VALUE);
+				}
+				state = gotos.get(state)[c];
+			}
+			outs.set(state, Math.min(outs.get(state), p));
+		}
+
+		int states = gotos.size();
+		int[] fail = new int[states];
+		transitions = new int[states * ALPHABET];
+		outputs = new int[states];
+		outputs[0] = outs.get(0);
+
+		// Breadth first, so the failure state of every state is complete before the state itself is processed
+		Queue<Integer> queue = new ArrayDeque<>();
+		for (int c = 0; c < ALPHABET; c++) {
+			int next = gotos.get(0)[c];
+			if (next < 0) {
+				transitions[c] = 0;
+			} else {
+				transitions[c] = next;
+				fail[next] = 0;
+				queue.add(next);
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			outputs[state] = Math.min(outs.get(state), outputs[fail[state]]);
+
+			for (int c = 0; c < ALPHABET; c++) {
+				int next = gotos.get(state)[c];
+				if (next < 0) {
+					transitions[state * ALPHABET + c] = transitions[fail[state] * ALPHABET + c];
+				} else {
+					transitions[state * ALPHABET + c] = next;
+					fail[next] = transitions[fail[state] * ALPHABET + c];
+					queue.add(next);
+				}
+			}
+		}
+	}
+
+	private static int[] newState() {
+		int[] state = new int[ALPHABET];
+		Arrays.fill(state, -1);
+		return state;
+	}
+
+	/**
+	 * @param text The text to search.
+	 * @return {@link #NO_MATCH} or the index of the highest priority pattern found in the upper 32 bits and the end
+	 * index (exclusive) of its first occurrence in the lower 32 bits.
+	 */
+	long match(CharSequence text) {
+		int state = 0, best = Integer.MAX_VALUE, end = -1;
+
+		for (int i = 0, length = text.length(); i < length; i++) {
+			char c = text.charAt(i);
+			state = c < ALPHABET ? transitions[state * ALPHABET + c] : 0;
+
+			int output = outputs[state];
+			if (output < best) {
+				best = output;
+				end = i + 1;
+
+				// Nothing can beat the first pattern
+				if (best == 0)
+					break;
+			}
+		}
+
+		return best == Integer.MAX_VALUE ? NO_MATCH : (long) best << 32 | end;
+	}
+
+	static int pattern(long match) {
+		return (int) (match >>> 32);
+	}
+
+	static int end(long match) {
+		return (int) match;
+	}
+
+}
@@ -0,0 +1,476 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The target operating system family and architecture of an executable or native library, determined from the
+ * header of its ELF, PE/COFF or Mach-O (including universal/fat) file. Only the few bytes of the header that are
+ * needed are ever read.
+ */
+public final class NativeBinary {
+
+	/**
+	 * How many bytes of an archive entry are buffered at most, archives cannot be read at arbitrary positions.
+	 */
+	private static final int ENTRY_HEADER_SIZE = 4096;
+
+	/**
+	 * Upper limit for the number of architectures in a fat binary. Java class files share the fat magic number, but
+	 * have their major version (which is at least 45) where fat binaries keep the number of architectures.
+	 */
+	private static final int MAX_FAT_ARCHITECTURES = 45;
+
+	private static final int ELF_MAGIC = 0x7F454C46, PT_INTERP = 3;
+
+	/**
+	 * The dynamic loader is always near the start of the file, no reason to read further in broken files.
+	 */
+	private static final int MAX_HEADER_OFFSET = 1 << 16;
+
+	private final Format format;
+
+	private final CurrentOS.Family family;
+
+	private final List<Architecture> architectures;
+
+	NativeBinary(Format format, CurrentOS.Family family, List<Architecture> architectures) {
+		this.format = format;
+		this.family = family;
+		this.architectures = Collections.unmodifiableList(architectures);
+	}
+
+	/**
+	 * Reads the header of the given file.
+	 *
+	 * @param file The file to read.
+	 * @return The description of the binary or {@code null} if the file is none of the supported formats.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static NativeBinary read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * Reads the header of the given channel using positional reads, the position of the channel is not changed.
+	 *
+	 * @param channel The channel to read.
+	 * @return The description of the binary or {@code null} if the channel contains none of the supported formats.
+	 * @throws IOException If the channel cannot be read.
+	 */
+	public static NativeBinary read(FileChannel channel) throws IOException {
+		return parse(channel::read);
+	}
+
+	/**
+	 * Reads the header from the start of the given stream. The stream is not closed.
+	 *
+	 * @param in The stream to read.
+	 * @return The description of the binary or {@code null} if the stream contains none of the supported formats.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	public static NativeBinary read(InputStream in) throws IOException {
+		byte[] header = new byte[ENTRY_HEADER_SIZE];
+		int length = 0, read;
+		while (length < header.length && (read = in.read(header, length, header.length - length)) > 0)
+			length += read;
+
+		int size = length;
+		return parse((dst, position) -> {
+			if (position >= size)
+				return -1;
+
+			int count = (int) Math.min(dst.remaining(), size - position);
+			dst.put(header, (int) position, count);
+			return count;
+		});
+	}
+
+	/**
+	 * Reads the headers of all files in the given directory and its subdirectories in parallel. JAR and ZIP files are
+	 * searched as well, their entries are reported as {@code path-of-archive!/name-of-entry}. Files and entries that
+	 * cannot be read, including whole subdirectories, are skipped, so a single broken file does not hide all other
+	 * results.
+	 *
+	 * @param directory The directory to scan.
+	 * @return The binaries that were found, keyed by their path.
+	 * @throws IOException If the directory itself cannot be read.
+	 */
+	public static Map<String, NativeBinary> scan(Path directory) throws IOException {
+		List<Path> files = new ArrayList<>();
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile())
+					files.add(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+				// Only the directory itself being unreadable fails the scan, anything below it is skipped
+				if (file.equals(directory))
+					throw e;
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		Map<String, NativeBinary> binaries = new ConcurrentHashMap<>();
+		files.parallelStream().forEach(file -> {
+			try {
+				if (isArchive(file)) {
+					binaries.putAll(scanArchive(file));
+				} else {
+					NativeBinary binary = read(file);
+					if (binary != null)
+						binaries.put(file.toString(), binary);
+				}
+			} catch (IOException | SecurityException e) {
+				// Unreadable or corrupt, the other files may still be fine
+			}
+		});
+
+		return binaries;
+	}
+
+	/**
+	 * Reads the headers of all entries in the given JAR or ZIP file in parallel. Entries that cannot be read, e.g.
+	 * because they are corrupt, are skipped.
+	 *
+	 * @param archive The archive to scan.
+	 * @return The binaries that were found, keyed by {@code path-of-archive!/name-of-entry}.
+	 * @throws IOException If the archive cannot be opened.
+	 */
+	public static Map<String, NativeBinary> scanArchive(Path archive) throws IOException {
+		Map<String, NativeBinary> binaries = new ConcurrentHashMap<>();
+
+		try (ZipFile zip = new ZipFile(archive.toFile())) {
+			List<? extends ZipEntry> entries = Collections.list(zip.entries());
+
+			entries.parallelStream().filter(entry -> !entry.isDirectory() && !entry.getName().endsWith(".class"))
+					.forEach(entry -> {
+						try (InputStream in = zip.getInputStream(entry)) {
+							NativeBinary binary = read(in);
+							if (binary != null)
+								binaries.put(archive + "!/" + entry.getName(), binary);
+						} catch (IOException e) {
+							// A corrupt entry, the others may still be fine
+						}
+					});
+		}
+
+		return binaries;
+	}
+
+	private static boolean isArchive(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		return name.endsWith(".jar") || name.endsWith(".zip");
+	}
+
+	/**
+	 * Reads the path of the dynamic loader from the {@code PT_INTERP} program header of an ELF file.
+	 *
+	 * @return The path or {@code null} if the file cannot be read, is not an ELF file or is statically linked.
+	 */
+	static String readInterpreter(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			HeaderSource source = channel::read;
+			ByteBuffer header = ByteBuffer.allocate(64);
+			if (readFully(source, header, 0) < 52 || header.getInt(0) != ELF_MAGIC)
+				return null;
+
+			boolean is64 = header.get(4) == 2;
+			header.order(header.get(5) == 2 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+
+			long programHeaders = is64 ? header.getLong(0x20) : header.getInt(0x1C) & 0xFFFFFFFFL;
+			int entrySize = header.getShort(is64 ? 0x36 : 0x2A) & 0xFFFF;
+			int count = header.getShort(is64 ? 0x38 : 0x2C) & 0xFFFF;
+			if (programHeaders <= 0 || programHeaders > MAX_HEADER_OFFSET || entrySize < (is64 ? 56 : 32))
+				return null;
+
+			ByteBuffer entry = ByteBuffer.allocate(entrySize).order(header.order());
+			for (int i = 0; i < count; i++) {
+				entry.clear();
+				if (readFully(source, entry, programHeaders + (long) i * entrySize) < entrySize)
+					return null;
+				if (entry.getInt(0) != PT_INTERP)
+					continue;
+
+				long offset = is64 ? entry.getLong(8) : entry.getInt(4) & 0xFFFFFFFFL;
+				long size = is64 ? entry.getLong(32) : entry.getInt(16) & 0xFFFFFFFFL;
+				if (size <= 0 || size > 4096)
+					return null;
+
+				ByteBuffer path = ByteBuffer.allocate((int) size);
+				int read = readFully(source, path, offset);
+				// The path is null-terminated
+				while (read > 0 && path.get(read - 1) == 0)
+					read--;
+				return new String(path.array(), 0, read, StandardCharsets.US_ASCII);
+			}
+			return null;
+		} catch (IOException | SecurityException e) {
+			return null;
+		}
+	}
+
+	private static NativeBinary parse(HeaderSource source) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(64);
+		if (readFully(source, header, 0) < 4)
+			return null;
+
+		int magic = header.getInt(0);
+
+		if (magic == ELF_MAGIC) // "\x7FELF"
+			return parseElf(header);
+		if ((magic >>> 16) == 0x4D5A) // "MZ"
+			return parsePe(source, header);
+		if (magic == 0xFEEDFACE || magic == 0xFEEDFACF || magic == 0xCEFAEDFE || magic == 0xCFFAEDFE)
+			return parseMachO(header);
+		if (magic == 0xCAFEBABE || magic == 0xCAFEBABF)
+			return parseFat(source, header, magic == 0xCAFEBABF);
+
+		return null;
+	}
+
+	private static NativeBinary parseElf(ByteBuffer header) {
+		// e_ident: class at 4 (1 = 32, 2 = 64 bit), data at 5 (1 = little, 2 = big endian), OS ABI at 7
+		boolean is64 = header.get(4) == 2, littleEndian = header.get(5) == 1;
+		header.order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+
+		CurrentOS.Family family;
+		switch (header.get(7)) {
+			case 0: // System V, used by practically all Linux binaries
+			case 3: // GNU/Linux
+				family = CurrentOS.Family.LINUX;
+				break;
+			default: // Solaris, the BSDs, ...
+				family = CurrentOS.Family.OTHER;
+		}
+
+		Architecture architecture;
+		switch (header.getShort(18) & 0xFFFF) {
+			case 3:
+				architecture = Architecture.X86;
+				break;
+			case 62:
+				architecture = Architecture.X86_64;
+				break;
+			case 40:
+				architecture = Architecture.ARM;
+				break;
+			case 183:
+				architecture = Architecture.AARCH64;
+				break;
+			case 21:
+				architecture = littleEndian ? Architecture.PPC64LE : Architecture.PPC64;
+				break;
+			case 22:
+				architecture = is64 ? Architecture.S390X : Architecture.UNKNOWN;
+				break;
+			case 243:
+				architecture = is64 ? Architecture.RISCV64 : Architecture.UNKNOWN;
+				break;
+			default:
+				architecture = Architecture.UNKNOWN;
+		}
+
+		return new NativeBinary(Format.ELF, family, Collections.singletonList(architecture));
+	}
+
+	private static NativeBinary parsePe(HeaderSource source, ByteBuffer header) throws IOException {
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		// e_lfanew, the offset of the PE header
+		long offset = header.getInt(0x3C) & 0xFFFFFFFFL;
+
+		ByteBuffer pe = ByteBuffer.allocate(6).order(ByteOrder.LITTLE_ENDIAN);
+		// Plain DOS executables have no PE header
+		if (readFully(source, pe, offset) < 6 || pe.getInt(0) != 0x00004550) // "PE\0\0"
+			return null;
+
+		Architecture architecture;
+		switch (pe.getShort(4) & 0xFFFF) {
+			case 0x014C:
+				architecture = Architecture.X86;
+				break;
+			case 0x8664:
+				architecture = Architecture.X86_64;
+				break;
+			case 0x01C0:
+			case 0x01C4:
+				architecture = Architecture.ARM;
+				break;
+			case 0xAA64:
+				architecture = Architecture.AARCH64;
+				break;
+			default:
+				architecture = Architecture.UNKNOWN;
+		}
+
+		return new NativeBinary(Format.PE, CurrentOS.Family.WINDOWS, Collections.singletonList(architecture));
+	}
+
+	private static NativeBinary parseMachO(ByteBuffer header) {
+		int magic = header.getInt(0);
+		header.order(magic == 0xCEFAEDFE || magic == 0xCFFAEDFE ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+
+		return new NativeBinary(Format.MACH_O, CurrentOS.Family.MAC,
+				Collections.singletonList(machOArchitecture(header.getInt(4))));
+	}
+
+	private static NativeBinary parseFat(HeaderSource source, ByteBuffer header, boolean is64) throws IOException {
+		int count = header.getInt(4);
+		if (count <= 0 || count >= MAX_FAT_ARCHITECTURES)
+			return null;
+
+		// fat_arch is 20 bytes, fat_arch_64 is 32 bytes, both start with the CPU type
+		int entrySize = is64 ? 32 : 20;
+		ByteBuffer entries = ByteBuffer.allocate(count * entrySize);
+		if (readFully(source, entries, 8) < entries.capacity())
+			return null;
+
+		List<Architecture> architectures = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			architectures.add(machOArchitecture(entries.getInt(i * entrySize)));
+
+		return new NativeBinary(Format.MACH_O, CurrentOS.Family.MAC, architectures);
+	}
+
+	private static Architecture machOArchitecture(int cpuType) {
+		switch (cpuType) {
+			case 7:
+				return Architecture.X86;
+			case 0x01000007:
+				return Architecture.X86_64;
+			case 12:
+				return Architecture.ARM;
+			case 0x0100000C:
+				return Architecture.AARCH64;
+			case 0x01000012:
+				return Architecture.PPC64;
+			default:
+				return Architecture.UNKNOWN;
+		}
+	}
+
+	/**
+	 * Fills the buffer from the given position, stopping early only at the end of the source.
+	 *
+	 * @return The number of bytes read.
+	 */
+	private static int readFully(HeaderSource source, ByteBuffer buffer, long position) throws IOException {
+		int total = 0;
+		while (buffer.hasRemaining()) {
+			int read = source.read(buffer, position + total);
+			if (read < 0)
+				break;
+			total += read;
+		}
+		return total;
+	}
+
+	/**
+	 * @return The binary format.
+	 */
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return The operating system family the binary was built for.
+	 */
+	public CurrentOS.Family getFamily() {
+		return family;
+	}
+
+	/**
+	 * @return The first (and for anything but fat binaries only) architecture the binary was built for.
+	 */
+	public Architecture getArchitecture() {
+		return architectures.get(0);
+	}
+
+	/**
+	 * @return All architectures the binary was built for.
+	 */
+	public List<Architecture> getArchitectures() {
+		return architectures;
+	}
+
+	@Override
+	public String toString() {
+		return "NativeBinary{format=" + format + ", family=" + family + ", architectures=" + architectures + "}";
+	}
+
+	public enum Format {
+
+		/**
+		 * Executable and Linkable Format, used by Linux, the BSDs and Solaris.
+		 */
+		ELF,
+		/**
+		 * Portable Executable, used by Windows.
+		 */
+		PE,
+		/**
+		 * Mach object file format, used by macOS, possibly containing multiple architectures.
+		 */
+		MACH_O
+
+	}
+
+	/**
+	 * Positional read access to the start of a file, the signature of {@link FileChannel#read(ByteBuffer, long)}.
+	 */
+	@FunctionalInterface
+	private interface HeaderSource {
+
+		int read(ByteBuffer dst, long position) throws IOException;
+
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The NUMA (non-uniform memory access) topology of a machine as reported by sysfs: which CPUs and how much memory
+ * belong to which node and how expensive it is to access the memory of one node from another. Use it to shard caches
+ * or executors per node so threads mostly touch memory that is local to them.
+ * <p>
+ * Instances are immutable. Machines without NUMA support in the kernel have no nodes at all, while most single socket
+ * machines have exactly one.
+ */
+public final class NumaTopology {
+
+	/**
+	 * The topology of a machine without any NUMA information.
+	 */
+	static final NumaTopology NONE = new NumaTopology(Collections.emptyList(), new int[0][0]);
+
+	private final List<Node> nodes;
+
+	/**
+	 * The distances between the nodes, indexed by their position in {@link #nodes}, not by their ids.
+	 */
+	private final int[][] distances;
+
+	private NumaTopology(List<Node> nodes, int[][] distances) {
+		this.nodes = nodes;
+		this.distances = distances;
+	}
+
+	/**
+	 * Reads the topology from the sysfs of the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 * @return The topology, {@link #NONE} if sysfs does not contain any nodes.
+	 */
+	static NumaTopology read(Path root) {
+		Path directory = SysFiles.resolve(root, "/sys/devices/system/node");
+		if (!Files.isDirectory(directory))
+			return NONE;
+
+		BitSet ids = new BitSet();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "node[0-9]*")) {
+			for (Path node : stream) {
+				try {
+					ids.set(Integer.parseInt(node.getFileName().toString().substring(4)));
+				} catch (NumberFormatException e) {
+					// Not a node after all
+				}
+			}
+		} catch (Exception e) {
+			return NONE;
+		}
+
+		if (ids.isEmpty())
+			return NONE;
+
+		List<Node> nodes = new ArrayList<>(ids.cardinality());
+		int[][] distances = new int[ids.cardinality()][];
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			Path node = directory.resolve("node" + id);
+
+			long total = -1, free = -1;
+			for (String line : SysFiles.readLines(node.resolve("meminfo"))) {
+				// Node 0 MemTotal:       32657356 kB
+				if (line.contains("MemTotal:"))
+					total = parseKiloBytes(line);
+				else if (line.contains("MemFree:"))
+					free = parseKiloBytes(line);
+			}
+
+			distances[nodes.size()] = parseDistances(SysFiles.read(node.resolve("distance")), ids.cardinality());
+			nodes.add(new Node(id, SysFiles.parseCpuList(SysFiles.read(node.resolve("cpulist"))), total, free));
+		}
+
+		return new NumaTopology(Collections.unmodifiableList(nodes), distances);
+	}
+
+	private static long parseKiloBytes(String line) {
+		String[] parts = line.trim().split("\\s+");
+		try {
+			// "Node", id, key, value, "kB"
+			return parts.length >= 4 ? Long.parseLong(parts[3]) * 1024 : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static int[] parseDistances(String line, int count) {
+		int[] distances = new int[count];
+		String[] parts = line == null ? new String[0] : line.trim().split("\\s+");
+		for (int i = 0; i < count; i++) {
+			try {
+				distances[i] = i < parts.length ? Integer.parseInt(parts[i]) : -1;
+			} catch (NumberFormatException e) {
+				distances[i] = -1;
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * @return The nodes, sorted by their ids.
+	 */
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return The node with the given id or {@code null} if there is none.
+	 */
+	public Node getNode(int id) {
+		int index = indexOf(id);
+		return index < 0 ? null : nodes.get(index);
+	}
+
+	/**
+	 * @return The node the given CPU belongs to or {@code null} if it is unknown.
+	 */
+	public Node getNodeOfCpu(int cpu) {
+		for (Node node : nodes)
+			if (node.cpus.get(cpu))
+				return node;
+		return null;
+	}
+
+	/**
+	 * The relative cost of accessing the memory of one node from another, as reported by the firmware (ACPI SLIT).
+	 * Accessing local memory is 10, other values are relative to that.
+	 *
+	 * @param from The id of the node accessing the memory.
+	 * @param to   The id of the node the memory belongs to.
+	 * @return The distance or -1 if unknown.
+	 */
+	public int getDistance(int from, int to) {
+		int fromIndex = indexOf(from), toIndex = indexOf(to);
+		return fromIndex < 0 || toIndex < 0 ? -1 : distances[fromIndex][toIndex];
+	}
+
+	/**
+	 * @return Whether there is more than one node, i.e. whether placement decisions matter at all.
+	 */
+	public boolean isNuma() {
+		return nodes.size() > 1;
+	}
+
+	private int indexOf(int id) {
+		for (int i = 0; i < nodes.size(); i++)
+			if (nodes.get(i).id == id)
+				return i;
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return "NumaTopology{nodes=" + nodes + "}";
+	}
+
+	/**
+	 * A single NUMA node, usually a CPU socket or a part of one.
+	 */
+	public static final class Node {
+
+		private final int id;
+
+		private final BitSet cpus;
+
+		private final long memoryTotal, memoryFree;
+
+		private Node(int id, BitSet cpus, long memoryTotal, long memoryFree) {
+			this.id = id;
+			this.cpus = cpus;
+			this.memoryTotal = memoryTotal;
+			this.memoryFree = memoryFree;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * @return A copy of the CPUs belonging to this node, empty for memory-only nodes.
+		 */
+		public BitSet getCpus() {
+			return (BitSet) cpus.clone();
+		}
+
+		public int getCpuCount() {
+			return cpus.cardinality();
+		}
+
+		/**
+		 * @return The total memory of this node in bytes or -1 if unknown.
+		 */
+		public long getMemoryTotal() {
+			return memoryTotal;
+		}
+
+		/**
+		 * @return The memory of this node that was free when the topology was read in bytes or -1 if unknown.
+		 */
+		public long getMemoryFree() {
+			return memoryFree;
+		}
+
+		@Override
+		public String toString() {
+			return "Node{id=" + id + ", cpus=" + cpus + ", memoryTotal=" + memoryTotal + "}";
+		}
+
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes any {@link OperatingSystem} into a single {@code int} and back. The encoding is stable across releases of
+ * this library, which makes it suitable for telemetry, wire protocols and storage.
+ * <p>
+ * Layout of an encoded value (most significant bit first):
+ * <pre>
+ * bits 28-31: format version, currently 1
+ * bits 24-27: family code
+ * bits  0-23: family specific payload
+ *   Windows: bits 0-7 version code, bit 8 server flag
+ *   Mac:     bits 12-23 major version, bits 0-11 minor version (0xFFF if unknown)
+ *   Linux:   bits 0-7 distribution code
+ *   Other:   bits 0-7 operating system code
+ * </pre>
+ * The codes are indices into the tables below and never the ordinals of the enums, so new constants can be added to
+ * the enums without breaking values that were encoded by an older version. Codes that are unknown to the decoder
+ * (because they were written by a newer version) are decoded as the {@code UNKNOWN} constant of their family.
+ * <p>
+ * Decoded instances are interned, so decoding does not allocate for anything but very unusual Mac versions.
+ */
+public final class OSCodec {
+
+	/**
+	 * The format version written by {@link #encode(OperatingSystem)}.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The number of bytes {@link #write(OperatingSystem, ByteBuffer)} puts into a buffer.
+	 */
+	public static final int BYTES = Integer.BYTES;
+
+	private static final int VERSION_SHIFT = 28, FAMILY_SHIFT = 24;
+
+	private static final int MAC_UNKNOWN = 0xFFF;
+
+	// The following tables may only ever be appended to! The index of a value is its code on the wire.
+
+	private static final CurrentOS.Family[] FAMILIES = {CurrentOS.Family.WINDOWS, CurrentOS.Family.MAC,
+			CurrentOS.Family.LINUX, CurrentOS.Family.OTHER};
+
+	private static final WinOS.Version[] WIN_VERSIONS = {WinOS.Version.UNKNOWN, WinOS.Version.WIN_95,
+			WinOS.Version.WIN_98, WinOS.Version.WIN_XP, WinOS.Version.WIN_VISTA, WinOS.Version.WIN_7,
+			WinOS.Version.WIN_8, WinOS.Version.WIN_8_1, WinOS.Version.WIN_10, WinOS.Version.WIN_11};
+
+	private static final LinuxOS.Distribution[] DISTRIBUTIONS = {LinuxOS.Distribution.UNKNOWN,
+			LinuxOS.Distribution.DEBIAN, LinuxOS.Distribution.UBUNTU, LinuxOS.Distribution.GENTOO,
+			LinuxOS.Distribution.LINUX_MINT, LinuxOS.Distribution.RED_HAT_ENTERPRISE_LINUX,
+			LinuxOS.Distribution.CENTOS, LinuxOS.Distribution.FEDORA, LinuxOS.Distribution.ARCH_LINUX,
+			LinuxOS.Distribution.SUSE, LinuxOS.Distribution.ALPINE};
+
+	private static final OtherOS.OS[] OTHERS = {OtherOS.OS.UNKNOWN, OtherOS.OS.SOLARIS, OtherOS.OS.ANDROID,
+			OtherOS.OS.IOS, OtherOS.OS.CHROME_OS, OtherOS.OS.FREEBSD};
+
+	// Reverse lookups from enum ordinal to code, derived from the tables above
+
+	private static final int[] FAMILY_CODES = codes(FAMILIES, CurrentOS.Family.values().length);
+
+	private static final int[] WIN_VERSION_CODES = codes(WIN_VERSIONS, WinOS.Version.values().length);
+
+	private static final int[] DISTRIBUTION_CODES = codes(DISTRIBUTIONS, LinuxOS.Distribution.values().length);
+
+	private static final int[] OTHER_CODES = codes(OTHERS, OtherOS.OS.values().length);
+
+	private OSCodec() {
+	}
+
+	private static int[] codes(Enum<?>[] table, int size) {
+		int[] codes = new int[size];
+		for (int code = 0; code < table.length; code++)
+			codes[table[code].ordinal()] = code;
+		return codes;
+	}
+
+	/**
+	 * Encodes the given operating system.
+	 *
+	 * @param operatingSystem The operating system to encode.
+	 * @return The encoded operating system.
+	 * @throws IllegalArgumentException If the given operating system is not one of the implementations in this
+	 *                                  library.
+	 */
+	public static int encode(OperatingSystem operatingSystem) {
+		int header = FORMAT_VERSION << VERSION_SHIFT
+				| FAMILY_CODES[operatingSystem.getFamily().ordinal()] << FAMILY_SHIFT;
+
+		if (operatingSystem instanceof WinOS) {
+			WinOS win = (WinOS) operatingSystem;
+			return header | (win.isServer() ? 1 << 8 : 0) | WIN_VERSION_CODES[win.getVersion().ordinal()];
+		}
+
+		if (operatingSystem instanceof MacOS) {
+			MacOS mac = (MacOS) operatingSystem;
+			return header | encodeMacVersion(mac.getMajor()) << 12 | encodeMacVersion(mac.getMinor());
+		}
+
+		if (operatingSystem instanceof LinuxOS)
+			return header | DISTRIBUTION_CODES[((LinuxOS) operatingSystem).getDistro().ordinal()];
+
+		if (operatingSystem instanceof OtherOS)
+			return header | OTHER_CODES[((OtherOS) operatingSystem).getOS().ordinal()];
+
+		throw new IllegalArgumentException("Cannot encode operating system: " + operatingSystem);
+	}
+
+	private static int encodeMacVersion(int version) {
+		return version < 0 || version >= MAC_UNKNOWN ? MAC_UNKNOWN : version;
+	}
+
+	/**
+	 * Decodes a value previously produced by {@link #encode(OperatingSystem)}.
+	 *
+	 * @param encoded The encoded operating system.
+	 * @return A shared instance of the decoded operating system.
+	 * @throws IllegalArgumentException If the format version or family of the value is not known.
+	 */
+	public static OperatingSystem decode(int encoded) {
+		int version = encoded >>> VERSION_SHIFT;
+		if (version != FORMAT_VERSION)
+			throw new IllegalArgumentException("Unsupported format version " + version + " in encoded OS "
+					+ Integer.toHexString(encoded));
+
+		int familyCode = encoded >>> FAMILY_SHIFT & 0xF;
+		if (familyCode >= FAMILIES.length)
+			throw new IllegalArgumentException("Unknown family " + familyCode + " in encoded OS "
+					+ Integer.toHexString(encoded));
+
+		int code = encoded & 0xFF;
+		switch (FAMILIES[familyCode]) {
+			case WINDOWS:
+				return InternedOS.win(code < WIN_VERSIONS.length ? WIN_VERSIONS[code] : WinOS.Version.UNKNOWN,
+						(encoded & 1 << 8) != 0);
+			case MAC:
+				int major = encoded >>> 12 & 0xFFF, minor = encoded & 0xFFF;
+				return InternedOS.mac(major == MAC_UNKNOWN ? -1 : major, minor == MAC_UNKNOWN ? -1 : minor);
+			case LINUX:
+				return InternedOS.linux(code < DISTRIBUTIONS.length ? DISTRIBUTIONS[code]
+						: LinuxOS.Distribution.UNKNOWN);
+			default:
+				return InternedOS.other(code < OTHERS.length ? OTHERS[code] : OtherOS.OS.UNKNOWN);
+		}
+	}
+
+	/**
+	 * Writes the encoded operating system to the buffer at its current position, advancing it by {@link #BYTES}.
+	 *
+	 * @param operatingSystem The operating system to write.
+	 * @param buffer          The buffer to write to.
+	 */
+	public static void write(OperatingSystem operatingSystem, ByteBuffer buffer) {
+		buffer.putInt(encode(operatingSystem));
+	}
+
+	/**
+	 * Reads an encoded operating system from the buffer at its current position, advancing it by {@link #BYTES}.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return A shared instance of the decoded operating system.
+	 */
+	public static OperatingSystem read(ByteBuffer buffer) {
+		return decode(buffer.getInt());
+	}
+
+}
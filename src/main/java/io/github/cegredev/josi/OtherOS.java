@@ -37,12 +37,48 @@ public class OtherOS extends OperatingSystem {
 		return os;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof OtherOS))
+			return false;
+
+		return os == ((OtherOS) o).os;
+	}
+
+	@Override
+	public int hashCode() {
+		return os.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "OtherOS{os=" + os + "}";
+	}
+
 	public enum OS {
 
 		/**
 		 * The Solaris operating system.
 		 */
 		SOLARIS(),
+		/**
+		 * Android, which is based on Linux but usually has to be treated differently.
+		 */
+		ANDROID(),
+		/**
+		 * Apple's iOS and iPadOS.
+		 */
+		IOS(),
+		/**
+		 * Google's ChromeOS.
+		 */
+		CHROME_OS(),
+		/**
+		 * The FreeBSD operating system.
+		 */
+		FREEBSD(),
 		/**
 		 * An operating system that cannot be classified.
 		 */
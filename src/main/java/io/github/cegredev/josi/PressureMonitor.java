@@ -0,0 +1,534 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Monitors the Pressure Stall Information (PSI) of the kernel, i.e. the share of time tasks were stalled waiting for
+ * CPU, memory or I/O, either system-wide or for the control group of the process. Rising pressure is the earliest
+ * signal that latency is about to collapse, which makes it a good input for shedding load.
+ * <p>
+ * The pressure files are kept open and parsed in place from a reused direct buffer. Every {@link #poll()} publishes
+ * one immutable {@link Snapshot} per resource, which can be read lock-free from any thread or received by
+ * {@link Listener}s.
+ * <p>
+ * Kernel triggers notify through {@code poll(2)} with {@code POLLPRI}, which Java cannot wait for, so
+ * {@link #addTrigger(Resource, boolean, long, long, Listener) triggers} are evaluated on the stall totals of the
+ * polled samples instead, with the same semantics: they fire when the stall time within the window exceeds the
+ * threshold, at most once per window.
+ */
+public final class PressureMonitor implements Closeable {
+
+	private static final int BUFFER_SIZE = 512;
+
+	private static final byte[] SOME = {'s', 'o', 'm', 'e'}, FULL = {'f', 'u', 'l', 'l'};
+
+	private final FileChannel[] channels = new FileChannel[Resource.values().length];
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * The parsed values of the last line: avg10, avg60, avg300 (in hundredths of a percent) and total.
+	 */
+	private final long[] parsed = new long[4];
+
+	private final AtomicReferenceArray<Snapshot> snapshots = new AtomicReferenceArray<>(Resource.values().length);
+
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	private final List<Trigger> triggers = new CopyOnWriteArrayList<>();
+
+	private final AtomicBoolean errorPrinted = new AtomicBoolean();
+
+	private volatile Consumer<? super Exception> errorHandler = this::printFirstError;
+
+	private ScheduledExecutorService scheduler;
+
+	private ScheduledFuture<?> task;
+
+	private PressureMonitor() {
+	}
+
+	/**
+	 * Opens the pressure files in the given directory, which is either /proc/pressure with the files "cpu", "memory"
+	 * and "io" or a cgroup v2 directory with the files "cpu.pressure", "memory.pressure" and "io.pressure".
+	 *
+	 * @param directory The directory.
+	 * @param cgroup    Whether the directory is a cgroup directory.
+	 * @return The monitor, which has already taken its first sample and has to be closed.
+	 * @throws IOException If none of the files can be opened, e.g. because PSI is disabled in the kernel.
+	 */
+	static PressureMonitor open(Path directory, boolean cgroup) throws IOException {
+		PressureMonitor monitor = new PressureMonitor();
+		IOException failure = null;
+		for (Resource resource : Resource.values()) {
+			Path file = directory.resolve(cgroup ? resource.fileName + ".pressure" : resource.fileName);
+			try {
+				monitor.channels[resource.ordinal()] = FileChannel.open(file, StandardOpenOption.READ);
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+
+		try {
+			if (!monitor.isAvailable(Resource.CPU) && !monitor.isAvailable(Resource.MEMORY)
+					&& !monitor.isAvailable(Resource.IO))
+				throw failure != null ? failure : new IOException("No pressure files in " + directory);
+
+			monitor.poll();
+		} catch (IOException e) {
+			monitor.close();
+			throw e;
+		}
+		return monitor;
+	}
+
+	/**
+	 * Reads the pressure of all resources, publishes the new snapshots and notifies the listeners and triggers.
+	 * Called by the monitor itself after {@link #start(long, TimeUnit)}. Exceptions thrown by a listener or trigger
+	 * are passed to the {@link #setErrorHandler(Consumer) error handler}, so they cannot keep the others from being
+	 * notified.
+	 *
+	 * @throws IOException If a pressure file cannot be read.
+	 */
+	public synchronized void poll() throws IOException {
+		long timestamp = System.nanoTime();
+		for (Resource resource : Resource.values()) {
+			FileChannel channel = channels[resource.ordinal()];
+			if (channel == null)
+				continue;
+
+			Snapshot snapshot = read(resource, channel, timestamp);
+			snapshots.set(resource.ordinal(), snapshot);
+
+			for (Trigger trigger : triggers) {
+				if (trigger.resource != resource)
+					continue;
+				try {
+					trigger.update(snapshot);
+				} catch (RuntimeException e) {
+					errorHandler.accept(e);
+				}
+			}
+			for (Listener listener : listeners) {
+				try {
+					listener.onPressure(snapshot);
+				} catch (RuntimeException e) {
+					errorHandler.accept(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The default error handler. Persistent failures, e.g. of a removed cgroup, would otherwise be printed with every
+	 * poll.
+	 */
+	private void printFirstError(Exception e) {
+		if (!errorPrinted.compareAndSet(false, true))
+			return;
+
+		System.err.println("Something went wrong while monitoring the pressure! Further errors are not reported.");
+		e.printStackTrace();
+	}
+
+	private Snapshot read(Resource resource, FileChannel channel, long timestamp) throws IOException {
+		buffer.clear();
+		int length = 0, read;
+		while (buffer.hasRemaining() && (read = channel.read(buffer, length)) > 0)
+			length += read;
+
+		// "some avg10=0.12 avg60=0.05 avg300=0.01 total=123456", followed by a "full" line since Linux 5.13 for CPU
+		long someAvg10 = 0, someAvg60 = 0, someAvg300 = 0, someTotal = 0;
+		long fullAvg10 = 0, fullAvg60 = 0, fullAvg300 = 0, fullTotal = 0;
+		int position = 0;
+		while (position < length) {
+			int end = position;
+			while (end < length && buffer.get(end) != '\n')
+				end++;
+
+			boolean some = startsWith(position, end, SOME);
+			if ((some || startsWith(position, end, FULL)) && parseLine(position + 4, end)) {
+				if (some) {
+					someAvg10 = parsed[0];
+					someAvg60 = parsed[1];
+					someAvg300 = parsed[2];
+					someTotal = parsed[3];
+				} else {
+					fullAvg10 = parsed[0];
+					fullAvg60 = parsed[1];
+					fullAvg300 = parsed[2];
+					fullTotal = parsed[3];
+				}
+			}
+			position = end + 1;
+		}
+
+		return new Snapshot(resource, timestamp, someAvg10, someAvg60, someAvg300, someTotal, fullAvg10, fullAvg60,
+				fullAvg300, fullTotal);
+	}
+
+	private boolean startsWith(int start, int end, byte[] prefix) {
+		if (end - start < prefix.length)
+			return false;
+		for (int i = 0; i < prefix.length; i++)
+			if (buffer.get(start + i) != prefix[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Parses the four "key=value" pairs of a line into {@link #parsed}. The averages are percentages with two decimal
+	 * places, which are parsed as fixed point numbers.
+	 *
+	 * @return Whether all four values were found.
+	 */
+	private boolean parseLine(int start, int end) {
+		int field = 0;
+		for (int position = start; position < end && field < parsed.length; position++) {
+			if (buffer.get(position) != '=')
+				continue;
+
+			long value = 0;
+			int decimals = -1;
+			for (position++; position < end; position++) {
+				byte b = buffer.get(position);
+				if (b == '.') {
+					decimals = 0;
+				} else if (b >= '0' && b <= '9') {
+					value = value * 10 + (b - '0');
+					if (decimals >= 0)
+						decimals++;
+				} else {
+					break;
+				}
+			}
+
+			// Normalize the averages to hundredths of a percent, the total is an integer
+			if (field < 3)
+				for (int i = Math.max(decimals, 0); i < 2; i++)
+					value *= 10;
+			parsed[field++] = value;
+		}
+		return field == parsed.length;
+	}
+
+	/**
+	 * Polls at a fixed rate on a daemon thread until the monitor is closed. Failures while polling are passed to the
+	 * {@link #setErrorHandler(Consumer) error handler} and polling continues with the next interval.
+	 *
+	 * @param interval The time between two polls.
+	 * @param unit     The unit of the interval.
+	 */
+	public synchronized void start(long interval, TimeUnit unit) {
+		if (scheduler != null)
+			throw new IllegalStateException("The monitor has already been started!");
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "josi-pressure-monitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		task = scheduler.scheduleAtFixedRate(() -> {
+			try {
+				poll();
+			} catch (IOException | RuntimeException e) {
+				errorHandler.accept(e);
+			}
+		}, interval, interval, unit);
+	}
+
+	/**
+	 * @return Whether the monitor was {@link #start(long, TimeUnit) started} and still polls, i.e. it was neither
+	 * closed nor stopped by an error the error handler could not take.
+	 */
+	public synchronized boolean isRunning() {
+		return task != null && !task.isDone();
+	}
+
+	/**
+	 * Sets what is called with failures while polling on the monitor's thread and with exceptions thrown by
+	 * listeners and triggers. By default only the first one is printed to {@link System#err}.
+	 */
+	public void setErrorHandler(Consumer<? super Exception> errorHandler) {
+		this.errorHandler = Objects.requireNonNull(errorHandler);
+	}
+
+	/**
+	 * @return The latest snapshot of the given resource or {@code null} if its pressure is not available.
+	 */
+	public Snapshot getSnapshot(Resource resource) {
+		return snapshots.get(resource.ordinal());
+	}
+
+	public boolean isAvailable(Resource resource) {
+		return channels[resource.ordinal()] != null;
+	}
+
+	/**
+	 * Adds a listener that is called with every new snapshot, on the thread that polls.
+	 */
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Adds a trigger that fires when tasks were stalled for longer than the threshold within the window, like
+	 * writing "some 150000 1000000" to a pressure file does. Polling has to be more frequent than the window for the
+	 * trigger to be accurate.
+	 *
+	 * @param resource The resource to watch.
+	 * @param full     Whether to watch the time all tasks were stalled instead of the time at least one was.
+	 * @param stallUs  The threshold of stalled time in microseconds.
+	 * @param windowUs The window in microseconds.
+	 * @param listener Called with the snapshot that exceeded the threshold, at most once per window.
+	 * @return The trigger, which can be passed to {@link #removeTrigger(Trigger)}.
+	 */
+	public Trigger addTrigger(Resource resource, boolean full, long stallUs, long windowUs, Listener listener) {
+		if (stallUs <= 0 || windowUs <= 0 || stallUs > windowUs)
+			throw new IllegalArgumentException("The stall threshold must be positive and not larger than the window!");
+
+		Trigger trigger = new Trigger(resource, full, stallUs, windowUs * 1000, listener);
+		triggers.add(trigger);
+		return trigger;
+	}
+
+	public void removeTrigger(Trigger trigger) {
+		triggers.remove(trigger);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		// Shutting down does not complete the periodic task, which would still look running
+		if (task != null)
+			task.cancel(false);
+		if (scheduler != null)
+			scheduler.shutdownNow();
+
+		IOException failure = null;
+		for (FileChannel channel : channels) {
+			try {
+				if (channel != null)
+					channel.close();
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	public enum Resource {
+
+		CPU("cpu"), MEMORY("memory"), IO("io");
+
+		private final String fileName;
+
+		Resource(String fileName) {
+			this.fileName = fileName;
+		}
+
+	}
+
+	/**
+	 * Receives the snapshots of a {@link PressureMonitor}.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		void onPressure(Snapshot snapshot);
+
+	}
+
+	/**
+	 * The pressure of one resource at one point in time. "some" is the share of time at least one task was stalled,
+	 * "full" the share of time all non-idle tasks were stalled at once.
+	 */
+	public static final class Snapshot {
+
+		private final Resource resource;
+
+		private final long timestamp;
+
+		private final long someAvg10, someAvg60, someAvg300, someTotal, fullAvg10, fullAvg60, fullAvg300, fullTotal;
+
+		private Snapshot(Resource resource, long timestamp, long someAvg10, long someAvg60, long someAvg300,
+						 long someTotal, long fullAvg10, long fullAvg60, long fullAvg300, long fullTotal) {
+			this.resource = resource;
+			this.timestamp = timestamp;
+			this.someAvg10 = someAvg10;
+			this.someAvg60 = someAvg60;
+			this.someAvg300 = someAvg300;
+			this.someTotal = someTotal;
+			this.fullAvg10 = fullAvg10;
+			this.fullAvg60 = fullAvg60;
+			this.fullAvg300 = fullAvg300;
+			this.fullTotal = fullTotal;
+		}
+
+		public Resource getResource() {
+			return resource;
+		}
+
+		/**
+		 * @return The {@link System#nanoTime()} at which the snapshot was taken.
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return The percentage of time at least one task was stalled over the last 10 seconds.
+		 */
+		public double getSomeAvg10() {
+			return someAvg10 / 100.0;
+		}
+
+		public double getSomeAvg60() {
+			return someAvg60 / 100.0;
+		}
+
+		public double getSomeAvg300() {
+			return someAvg300 / 100.0;
+		}
+
+		/**
+		 * @return The total time at least one task was stalled in microseconds.
+		 */
+		public long getSomeTotal() {
+			return someTotal;
+		}
+
+		/**
+		 * @return The percentage of time all tasks were stalled over the last 10 seconds.
+		 */
+		public double getFullAvg10() {
+			return fullAvg10 / 100.0;
+		}
+
+		public double getFullAvg60() {
+			return fullAvg60 / 100.0;
+		}
+
+		public double getFullAvg300() {
+			return fullAvg300 / 100.0;
+		}
+
+		/**
+		 * @return The total time all tasks were stalled in microseconds.
+		 */
+		public long getFullTotal() {
+			return fullTotal;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot{resource=" + resource + ", someAvg10=" + getSomeAvg10() + ", fullAvg10="
+					+ getFullAvg10() + "}";
+		}
+
+	}
+
+	/**
+	 * A trigger evaluated on the polled totals. Only accessed while polling, which is synchronized.
+	 */
+	public static final class Trigger {
+
+		/**
+		 * The number of samples remembered per trigger, more are dropped from the start of the window.
+		 */
+		private static final int CAPACITY = 64;
+
+		private final Resource resource;
+
+		private final boolean full;
+
+		private final long stallUs, windowNanos;
+
+		private final Listener listener;
+
+		private final long[] timestamps = new long[CAPACITY], totals = new long[CAPACITY];
+
+		private int start, size;
+
+		private long lastFired;
+
+		private boolean fired;
+
+		private Trigger(Resource resource, boolean full, long stallUs, long windowNanos, Listener listener) {
+			this.resource = resource;
+			this.full = full;
+			this.stallUs = stallUs;
+			this.windowNanos = windowNanos;
+			this.listener = listener;
+		}
+
+		private void update(Snapshot snapshot) {
+			long now = snapshot.timestamp, total = full ? snapshot.fullTotal : snapshot.someTotal;
+
+			// Drop the samples that left the window, but keep the last one before it as the baseline
+			while (size > 1 && now - timestamps[(start + 1) % CAPACITY] >= windowNanos) {
+				start = (start + 1) % CAPACITY;
+				size--;
+			}
+			if (size == CAPACITY) {
+				start = (start + 1) % CAPACITY;
+				size--;
+			}
+
+			int end = (start + size) % CAPACITY;
+			timestamps[end] = now;
+			totals[end] = total;
+			size++;
+
+			if (size > 1 && total - totals[start] >= stallUs && (!fired || now - lastFired >= windowNanos)) {
+				fired = true;
+				lastFired = now;
+				listener.onPressure(snapshot);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,287 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A snapshot of the resource limits of the process ({@code ulimit}) and of the kernel tunables ({@code sysctl}) that
+ * components most commonly run into, e.g. the number of open files for connection pools or
+ * {@code vm.max_map_count} for indexes that memory map many files.
+ * <p>
+ * All values are read in a single pass when the snapshot is taken and stored as primitives.
+ */
+public final class ProcessLimits {
+
+	/**
+	 * The value of a limit that is not limited.
+	 */
+	public static final long UNLIMITED = Long.MAX_VALUE;
+
+	/**
+	 * The limits of a process about which nothing is known.
+	 */
+	static final ProcessLimits UNKNOWN = new ProcessLimits(unknown(Resource.values().length),
+			unknown(Resource.values().length), unknown(Sysctl.values().length), -1, -1);
+
+	private final long[] soft, hard, sysctls;
+
+	private final int localPortRangeStart, localPortRangeEnd;
+
+	private ProcessLimits(long[] soft, long[] hard, long[] sysctls, int localPortRangeStart, int localPortRangeEnd) {
+		this.soft = soft;
+		this.hard = hard;
+		this.sysctls = sysctls;
+		this.localPortRangeStart = localPortRangeStart;
+		this.localPortRangeEnd = localPortRangeEnd;
+	}
+
+	private static long[] unknown(int length) {
+		long[] values = new long[length];
+		for (int i = 0; i < length; i++)
+			values[i] = -1;
+		return values;
+	}
+
+	/**
+	 * Reads the limits of the current process and the tunables from the given file system.
+	 *
+	 * @param root The root of the file system, "/" for the host.
+	 */
+	static ProcessLimits read(Path root) {
+		long[] soft = unknown(Resource.values().length), hard = unknown(Resource.values().length);
+
+		// The columns are padded to a fixed width, but the names contain spaces, so the header tells where they are
+		List<String> lines = SysFiles.readLines(SysFiles.resolve(root, "/proc/self/limits"));
+		if (!lines.isEmpty()) {
+			String header = lines.get(0);
+			int softColumn = header.indexOf("Soft Limit"), hardColumn = header.indexOf("Hard Limit");
+
+			if (softColumn > 0 && hardColumn > softColumn) {
+				for (String line : lines.subList(1, lines.size())) {
+					if (line.length() <= hardColumn)
+						continue;
+
+					Resource resource = Resource.fromName(line.substring(0, softColumn).trim());
+					if (resource == null)
+						continue;
+
+					soft[resource.ordinal()] = parseLimit(line.substring(softColumn, hardColumn));
+					hard[resource.ordinal()] = parseLimit(line.substring(hardColumn));
+				}
+			}
+		}
+
+		Sysctl[] values = Sysctl.values();
+		long[] sysctls = new long[values.length];
+		for (int i = 0; i < values.length; i++)
+			sysctls[i] = SysFiles.readLong(SysFiles.resolve(root, values[i].path), -1);
+
+		int portStart = -1, portEnd = -1;
+		String range = SysFiles.read(SysFiles.resolve(root, "/proc/sys/net/ipv4/ip_local_port_range"));
+		if (range != null) {
+			String[] ports = range.split("\\s+");
+			if (ports.length == 2) {
+				try {
+					portStart = Integer.parseInt(ports[0]);
+					portEnd = Integer.parseInt(ports[1]);
+				} catch (NumberFormatException e) {
+					portStart = portEnd = -1;
+				}
+			}
+		}
+
+		return new ProcessLimits(soft, hard, sysctls, portStart, portEnd);
+	}
+
+	/**
+	 * Parses a column that starts with the value, e.g. "unlimited            seconds".
+	 */
+	private static long parseLimit(String column) {
+		String value = column.trim();
+		int space = value.indexOf(' ');
+		if (space > 0)
+			value = value.substring(0, space);
+
+		if (value.equals("unlimited"))
+			return UNLIMITED;
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return The soft limit, which is the one that is enforced, {@link #UNLIMITED} or -1 if unknown.
+	 */
+	public long getSoftLimit(Resource resource) {
+		return soft[resource.ordinal()];
+	}
+
+	/**
+	 * @return The hard limit, up to which the process may raise the soft limit itself, {@link #UNLIMITED} or -1 if
+	 * unknown.
+	 */
+	public long getHardLimit(Resource resource) {
+		return hard[resource.ordinal()];
+	}
+
+	/**
+	 * @return The value of the tunable or -1 if unknown.
+	 */
+	public long getSysctl(Sysctl sysctl) {
+		return sysctls[sysctl.ordinal()];
+	}
+
+	/**
+	 * @return The soft limit of open file descriptors, including sockets.
+	 */
+	public long getMaxOpenFiles() {
+		return getSoftLimit(Resource.OPEN_FILES);
+	}
+
+	/**
+	 * @return The soft limit of memory that may be locked in RAM, e.g. by {@code mlock} or io_uring buffers.
+	 */
+	public long getMaxLockedMemory() {
+		return getSoftLimit(Resource.LOCKED_MEMORY);
+	}
+
+	/**
+	 * @return The soft limit of processes and threads of the user.
+	 */
+	public long getMaxProcesses() {
+		return getSoftLimit(Resource.PROCESSES);
+	}
+
+	public long getMaxMapCount() {
+		return getSysctl(Sysctl.MAX_MAP_COUNT);
+	}
+
+	public long getSomaxconn() {
+		return getSysctl(Sysctl.SOMAXCONN);
+	}
+
+	public long getPidMax() {
+		return getSysctl(Sysctl.PID_MAX);
+	}
+
+	/**
+	 * @return The first port used for outgoing connections or -1 if unknown.
+	 */
+	public int getLocalPortRangeStart() {
+		return localPortRangeStart;
+	}
+
+	/**
+	 * @return The last port used for outgoing connections or -1 if unknown.
+	 */
+	public int getLocalPortRangeEnd() {
+		return localPortRangeEnd;
+	}
+
+	@Override
+	public String toString() {
+		return "ProcessLimits{maxOpenFiles=" + getMaxOpenFiles() + ", maxProcesses=" + getMaxProcesses()
+				+ ", maxMapCount=" + getMaxMapCount() + ", somaxconn=" + getSomaxconn() + "}";
+	}
+
+	/**
+	 * The resources of {@code getrlimit(2)} as named in /proc/self/limits.
+	 */
+	public enum Resource {
+
+		CPU_TIME("Max cpu time"), FILE_SIZE("Max file size"), DATA_SIZE("Max data size"),
+		STACK_SIZE("Max stack size"), CORE_FILE_SIZE("Max core file size"), RESIDENT_SET("Max resident set"),
+		PROCESSES("Max processes"), OPEN_FILES("Max open files"), LOCKED_MEMORY("Max locked memory"),
+		ADDRESS_SPACE("Max address space"), FILE_LOCKS("Max file locks"), PENDING_SIGNALS("Max pending signals"),
+		MESSAGE_QUEUE_SIZE("Max msgqueue size"), NICE_PRIORITY("Max nice priority"),
+		REALTIME_PRIORITY("Max realtime priority"), REALTIME_TIMEOUT("Max realtime timeout");
+
+		private final String name;
+
+		Resource(String name) {
+			this.name = name;
+		}
+
+		static Resource fromName(String name) {
+			for (Resource resource : values())
+				if (resource.name.equals(name))
+					return resource;
+			return null;
+		}
+
+	}
+
+	/**
+	 * The kernel tunables that are read, all of which are single numbers.
+	 */
+	public enum Sysctl {
+
+		/**
+		 * The maximum number of memory mappings per process.
+		 */
+		MAX_MAP_COUNT("vm.max_map_count"),
+		OVERCOMMIT_MEMORY("vm.overcommit_memory"),
+		SWAPPINESS("vm.swappiness"),
+		/**
+		 * The maximum backlog of a listening socket, larger backlogs passed to {@code listen} are silently capped.
+		 */
+		SOMAXCONN("net.core.somaxconn"),
+		TCP_MAX_SYN_BACKLOG("net.ipv4.tcp_max_syn_backlog"),
+		/**
+		 * The largest process id, which also limits the number of threads system-wide.
+		 */
+		PID_MAX("kernel.pid_max"),
+		THREADS_MAX("kernel.threads-max"),
+		/**
+		 * The maximum number of open files system-wide.
+		 */
+		FILE_MAX("fs.file-max"),
+		/**
+		 * The ceiling for the open files limit of a process.
+		 */
+		NR_OPEN("fs.nr_open"),
+		INOTIFY_MAX_USER_WATCHES("fs.inotify.max_user_watches"),
+		AIO_MAX_NR("fs.aio-max-nr");
+
+		private final String name, path;
+
+		Sysctl(String name) {
+			this.name = name;
+			this.path = "/proc/sys/" + name.replace('.', '/');
+		}
+
+		/**
+		 * @return The name as used by {@code sysctl}, e.g. "vm.max_map_count".
+		 */
+		public String getName() {
+			return name;
+		}
+
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Determines the operating systems of extracted root file systems, for example those of unpacked container or VM
+ * images, without running anything inside them.
+ */
+public final class RootFsScanner {
+
+	/**
+	 * The locations of the os-release file relative to the root, in the order they are looked up in. See
+	 * https://www.freedesktop.org/software/systemd/man/os-release.html
+	 */
+	static final String[] OS_RELEASE_PATHS = {"etc/os-release", "usr/lib/os-release"};
+
+	/**
+	 * The maximum number of symbolic links followed while resolving a single path, just like Linux does.
+	 */
+	private static final int MAX_SYMLINKS = 40;
+
+	private RootFsScanner() {
+	}
+
+	/**
+	 * Determines the operating system of a single root file system.
+	 *
+	 * @param root The directory the root file system was extracted to.
+	 * @return The operating system of the root file system, {@link LinuxOS.Distribution#UNKNOWN} if it contains no
+	 * readable os-release file.
+	 * @throws IOException If the os-release file exists but cannot be read.
+	 */
+	public static OperatingSystem detect(Path root) throws IOException {
+		for (String path : OS_RELEASE_PATHS) {
+			Path osRelease = resolve(root, path);
+			if (osRelease == null || !Files.isRegularFile(osRelease))
+				continue;
+
+			try (BufferedReader reader = Files.newBufferedReader(osRelease, StandardCharsets.UTF_8)) {
+				return CurrentOS.determineLinux(reader, root);
+			}
+		}
+
+		return new LinuxOS(LinuxOS.Distribution.UNKNOWN, root);
+	}
+
+	/**
+	 * Determines the operating systems of all root file systems in the given directory, i.e. each of its
+	 * subdirectories is treated as a root file system.
+	 *
+	 * @param directory   The directory containing the root file systems.
+	 * @param parallelism The maximum number of root file systems that are read at the same time.
+	 * @return The operating systems keyed by the directories of their root file systems.
+	 * @throws IOException If the directory cannot be listed.
+	 * @see #scan(Collection, int)
+	 */
+	public static Map<Path, OperatingSystem> scan(Path directory, int parallelism) throws IOException {
+		List<Path> roots;
+		try (Stream<Path> stream = Files.list(directory)) {
+			roots = stream.filter(Files::isDirectory).collect(Collectors.toList());
+		}
+
+		return scan(roots, parallelism);
+	}
+
+	/**
+	 * Determines the operating systems of all given root file systems. A root file system that cannot be read, e.g.
+	 * because of an unreadable symbolic link or os-release file, is reported as {@link LinuxOS.Distribution#UNKNOWN}
+	 * instead of failing the whole scan.
+	 *
+	 * @param roots       The directories the root file systems were extracted to.
+	 * @param parallelism The maximum number of root file systems that are read at the same time.
+	 * @return The operating systems keyed by the directories of their root file systems.
+	 * @throws IOException If the scan is interrupted.
+	 */
+	public static Map<Path, OperatingSystem> scan(Collection<Path> roots, int parallelism) throws IOException {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+
+		// The work is almost entirely waiting for the file system, so a dedicated pool keeps it from blocking the
+		// common fork join pool and caps the number of outstanding I/O requests.
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, roots.size())),
+				runnable -> {
+					Thread thread = new Thread(runnable, "josi-rootfs-scanner");
+					thread.setDaemon(true);
+					return thread;
+				});
+
+		try {
+			Map<Path, Future<OperatingSystem>> futures = new LinkedHashMap<>();
+			for (Path root : roots)
+				futures.put(root, executor.submit(() -> detectOrUnknown(root)));
+
+			Map<Path, OperatingSystem> result = new LinkedHashMap<>();
+			for (Map.Entry<Path, Future<OperatingSystem>> entry : futures.entrySet())
+				result.put(entry.getKey(), entry.getValue().get());
+			return result;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IllegalStateException("Could not scan root file systems!", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while scanning root file systems!", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static OperatingSystem detectOrUnknown(Path root) {
+		try {
+			return detect(root);
+		} catch (IOException | RuntimeException e) {
+			// One broken image must not cost the results of all others
+			return new LinuxOS(LinuxOS.Distribution.UNKNOWN, root);
+		}
+	}
+
+	/**
+	 * Resolves a path inside of a root file system, following symbolic links the way they would be followed if the
+	 * root was the actual root. This means absolute link targets are relative to the root and ".." never leaves it.
+	 *
+	 * @param root The directory the root file system was extracted to.
+	 * @param path The path relative to the root file system, e.g. "etc/os-release".
+	 * @return The resolved path, which does not necessarily exist, or {@code null} if there are too many symbolic
+	 * links.
+	 * @throws IOException If a symbolic link cannot be read.
+	 */
+	static Path resolve(Path root, String path) throws IOException {
+		Deque<String> pending = new ArrayDeque<>(Arrays.asList(path.split("/")));
+		List<String> resolved = new ArrayList<>();
+		int links = 0;
+
+		while (!pending.isEmpty()) {
+			String component = pending.pollFirst();
+
+			if (component.isEmpty() || component.equals("."))
+				continue;
+
+			if (component.equals("..")) {
+				if (!resolved.isEmpty())
+					resolved.remove(resolved.size() - 1);
+				continue;
+			}
+
+			Path candidate = root.resolve(String.join("/", resolved)).resolve(component);
+			if (!Files.isSymbolicLink(candidate)) {
+				resolved.add(component);
+				continue;
+			}
+
+			if (++links > MAX_SYMLINKS)
+				return null;
+
+			String target = Files.readSymbolicLink(candidate).toString().replace('\\', '/');
+			if (target.startsWith("/"))
+				resolved.clear();
+
+			String[] targetComponents = target.split("/");
+			for (int i = targetComponents.length - 1; i >= 0; i--)
+				pending.addFirst(targetComponents[i]);
+		}
+
+		return root.resolve(String.join("/", resolved));
+	}
+
+}
@@ -0,0 +1,294 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The privileges and security policies of the current process: its capabilities, seccomp mode, the locked memory
+ * limit and the active Linux security modules. Use it to only enable fast paths relying on {@code mlock},
+ * real-time priorities or similar where they will actually work.
+ * <p>
+ * Note that a seccomp filter may block any system call, which cannot be determined without trying. Instances are
+ * immutable and describe the process at the time they were read.
+ */
+public final class SecurityProfile {
+
+	/**
+	 * The profile of a process about which nothing is known.
+	 */
+	static final SecurityProfile UNKNOWN = new SecurityProfile(0, 0, 0, false, Seccomp.UNKNOWN,
+			Collections.emptyList(), null, -1, -1, -1);
+
+	private final long effective, permitted, bounding;
+
+	private final boolean noNewPrivileges;
+
+	private final Seccomp seccomp;
+
+	private final List<String> securityModules;
+
+	private final String securityContext;
+
+	private final long lockedMemoryLimit, nicePriorityLimit, realtimePriorityLimit;
+
+	private SecurityProfile(long effective, long permitted, long bounding, boolean noNewPrivileges, Seccomp seccomp,
+							List<String> securityModules, String securityContext, long lockedMemoryLimit,
+							long nicePriorityLimit, long realtimePriorityLimit) {
+		this.effective = effective;
+		this.permitted = permitted;
+		this.bounding = bounding;
+		this.noNewPrivileges = noNewPrivileges;
+		this.seccomp = seccomp;
+		this.securityModules = securityModules;
+		this.securityContext = securityContext;
+		this.lockedMemoryLimit = lockedMemoryLimit;
+		this.nicePriorityLimit = nicePriorityLimit;
+		this.realtimePriorityLimit = realtimePriorityLimit;
+	}
+
+	/**
+	 * Reads the profile of the current process from the given file system.
+	 *
+	 * @param root   The root of the file system, "/" for the host.
+	 * @param limits The resource limits of the same process.
+	 */
+	static SecurityProfile read(Path root, ProcessLimits limits) {
+		long effective = 0, permitted = 0, bounding = 0;
+		boolean noNewPrivileges = false;
+		Seccomp seccomp = Seccomp.UNKNOWN;
+
+		for (String line : SysFiles.readLines(SysFiles.resolve(root, "/proc/self/status"))) {
+			int colon = line.indexOf(':');
+			if (colon < 0)
+				continue;
+
+			String value = line.substring(colon + 1).trim();
+			switch (line.substring(0, colon)) {
+				case "CapEff":
+					effective = parseMask(value);
+					break;
+				case "CapPrm":
+					permitted = parseMask(value);
+					break;
+				case "CapBnd":
+					bounding = parseMask(value);
+					break;
+				case "NoNewPrivs":
+					noNewPrivileges = value.equals("1");
+					break;
+				case "Seccomp":
+					seccomp = Seccomp.fromMode(value);
+					break;
+				default:
+					break;
+			}
+		}
+
+		return new SecurityProfile(effective, permitted, bounding, noNewPrivileges, seccomp, readModules(root),
+				SysFiles.read(SysFiles.resolve(root, "/proc/self/attr/current")),
+				limits.getSoftLimit(ProcessLimits.Resource.LOCKED_MEMORY),
+				limits.getSoftLimit(ProcessLimits.Resource.NICE_PRIORITY),
+				limits.getSoftLimit(ProcessLimits.Resource.REALTIME_PRIORITY));
+	}
+
+	private static long parseMask(String hex) {
+		try {
+			return Long.parseUnsignedLong(hex, 16);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Reads the active security modules, falling back to probing the common ones if securityfs is not mounted, which
+	 * is usually the case in containers.
+	 */
+	private static List<String> readModules(Path root) {
+		String lsm = SysFiles.read(SysFiles.resolve(root, "/sys/kernel/security/lsm"));
+		if (lsm != null && !lsm.isEmpty())
+			return Collections.unmodifiableList(Arrays.asList(lsm.split(",")));
+
+		List<String> modules = new ArrayList<>(2);
+		if (SysFiles.read(SysFiles.resolve(root, "/sys/fs/selinux/enforce")) != null)
+			modules.add("selinux");
+		if ("Y".equals(SysFiles.read(SysFiles.resolve(root, "/sys/module/apparmor/parameters/enabled"))))
+			modules.add("apparmor");
+		return Collections.unmodifiableList(modules);
+	}
+
+	/**
+	 * @return Whether the capability is in the effective set, i.e. the process may use it right now.
+	 */
+	public boolean hasCapability(Capability capability) {
+		return (effective & capability.bit()) != 0;
+	}
+
+	/**
+	 * @return The effective capabilities.
+	 */
+	public Set<Capability> getCapabilities() {
+		return toSet(effective);
+	}
+
+	/**
+	 * @return The permitted capabilities, which the process could make effective.
+	 */
+	public Set<Capability> getPermittedCapabilities() {
+		return toSet(permitted);
+	}
+
+	/**
+	 * @return The bounding set, which limits the capabilities that can ever be gained.
+	 */
+	public Set<Capability> getBoundingCapabilities() {
+		return toSet(bounding);
+	}
+
+	private static Set<Capability> toSet(long mask) {
+		EnumSet<Capability> capabilities = EnumSet.noneOf(Capability.class);
+		for (Capability capability : Capability.values())
+			if ((mask & capability.bit()) != 0)
+				capabilities.add(capability);
+		return capabilities;
+	}
+
+	/**
+	 * @return Whether the process, and all its children, can never gain privileges, e.g. through setuid binaries.
+	 */
+	public boolean isNoNewPrivileges() {
+		return noNewPrivileges;
+	}
+
+	public Seccomp getSeccomp() {
+		return seccomp;
+	}
+
+	/**
+	 * @return The names of the active Linux security modules, e.g. "apparmor", empty if unknown.
+	 */
+	public List<String> getSecurityModules() {
+		return securityModules;
+	}
+
+	/**
+	 * @return The label of this process, e.g. "docker-default (enforce)" for AppArmor, or {@code null} if unknown.
+	 */
+	public String getSecurityContext() {
+		return securityContext;
+	}
+
+	/**
+	 * @return The soft limit of locked memory in bytes, {@link ProcessLimits#UNLIMITED} or -1 if unknown.
+	 */
+	public long getLockedMemoryLimit() {
+		return lockedMemoryLimit;
+	}
+
+	/**
+	 * {@code CAP_IPC_LOCK} bypasses the limit. Memory locked elsewhere in the process also counts against the limit,
+	 * so the result is an upper bound.
+	 *
+	 * @return Whether {@code mlock} of the given amount of bytes may succeed.
+	 */
+	public boolean canLockMemory(long bytes) {
+		return hasCapability(Capability.IPC_LOCK) || lockedMemoryLimit >= bytes;
+	}
+
+	/**
+	 * @return Whether the process may raise its nice priority above the default.
+	 */
+	public boolean canRaisePriority() {
+		// RLIMIT_NICE allows a nice value of 20 - limit, so anything above 20 is a raise
+		return hasCapability(Capability.SYS_NICE) || nicePriorityLimit > 20;
+	}
+
+	/**
+	 * @return Whether the process may use a real-time scheduling policy such as SCHED_FIFO.
+	 */
+	public boolean canUseRealtimePriority() {
+		return hasCapability(Capability.SYS_NICE) || realtimePriorityLimit > 0;
+	}
+
+	@Override
+	public String toString() {
+		return "SecurityProfile{capabilities=" + getCapabilities() + ", seccomp=" + seccomp + ", modules="
+				+ securityModules + ", lockedMemoryLimit=" + lockedMemoryLimit + "}";
+	}
+
+	/**
+	 * The capabilities of {@code capabilities(7)}, in the order of their bits.
+	 */
+	public enum Capability {
+
+		CHOWN, DAC_OVERRIDE, DAC_READ_SEARCH, FOWNER, FSETID, KILL, SETGID, SETUID, SETPCAP, LINUX_IMMUTABLE,
+		NET_BIND_SERVICE, NET_BROADCAST, NET_ADMIN, NET_RAW, IPC_LOCK, IPC_OWNER, SYS_MODULE, SYS_RAWIO, SYS_CHROOT,
+		SYS_PTRACE, SYS_PACCT, SYS_ADMIN, SYS_BOOT, SYS_NICE, SYS_RESOURCE, SYS_TIME, SYS_TTY_CONFIG, MKNOD, LEASE,
+		AUDIT_WRITE, AUDIT_CONTROL, SETFCAP, MAC_OVERRIDE, MAC_ADMIN, SYSLOG, WAKE_ALARM, BLOCK_SUSPEND, AUDIT_READ,
+		PERFMON, BPF, CHECKPOINT_RESTORE;
+
+		long bit() {
+			return 1L << ordinal();
+		}
+
+	}
+
+	public enum Seccomp {
+
+		/**
+		 * All system calls are allowed.
+		 */
+		DISABLED,
+		/**
+		 * Only read, write, exit and sigreturn are allowed.
+		 */
+		STRICT,
+		/**
+		 * A BPF filter decides which system calls are allowed, as in most container runtimes.
+		 */
+		FILTER,
+		UNKNOWN;
+
+		static Seccomp fromMode(String mode) {
+			switch (mode) {
+				case "0":
+					return DISABLED;
+				case "1":
+					return STRICT;
+				case "2":
+					return FILTER;
+				default:
+					return UNKNOWN;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helpers for reading the small text files of procfs and sysfs. A missing or unreadable file is nothing exceptional
+ * there (it usually just means a feature is not supported by the kernel or hidden by a container), so these methods
+ * return a fallback instead of throwing.
+ */
+final class SysFiles {
+
+	private SysFiles() {
+	}
+
+	/**
+	 * @return The trimmed contents of the file or {@code null} if it cannot be read.
+	 */
+	static String read(Path file) {
+		try {
+			return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+		} catch (IOException | SecurityException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return The lines of the file or an empty list if it cannot be read.
+	 */
+	static List<String> readLines(Path file) {
+		try {
+			return Files.readAllLines(file, StandardCharsets.UTF_8);
+		} catch (IOException | SecurityException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * @return The number the file consists of or the fallback if it cannot be read or is not a number.
+	 */
+	static long readLong(Path file, long fallback) {
+		String content = read(file);
+		if (content == null)
+			return fallback;
+
+		try {
+			return Long.parseLong(content);
+		} catch (NumberFormatException e) {
+			return fallback;
+		}
+	}
+
+	/**
+	 * Parses a list of CPUs in the format used by the kernel, e.g. "0-3,8,10-11".
+	 *
+	 * @return The CPUs in the list, empty if the list is {@code null} or malformed.
+	 */
+	static BitSet parseCpuList(String list) {
+		BitSet cpus = new BitSet();
+		if (list == null)
+			return cpus;
+
+		try {
+			for (String range : list.trim().split(",")) {
+				if (range.isEmpty())
+					continue;
+
+				int dash = range.indexOf('-');
+				if (dash < 0)
+					cpus.set(Integer.parseInt(range.trim()));
+				else {
+					int from = Integer.parseInt(range.substring(0, dash).trim()),
+							to = Integer.parseInt(range.substring(dash + 1).trim());
+					if (to < from)
+						return new BitSet();
+					cpus.set(from, to + 1);
+				}
+			}
+		} catch (NumberFormatException e) {
+			return new BitSet();
+		}
+
+		return cpus;
+	}
+
+	/**
+	 * Reads the online CPUs of the given file system, falling back to the CPU directories if the online list is
+	 * missing, e.g. in a partial copy of sysfs.
+	 *
+	 * @return The online CPUs, empty if they are unknown.
+	 */
+	static BitSet readOnlineCpus(Path root) {
+		Path directory = resolve(root, "/sys/devices/system/cpu");
+		BitSet online = parseCpuList(read(directory.resolve("online")));
+		if (!online.isEmpty() || !Files.isDirectory(directory))
+			return online;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "cpu[0-9]*")) {
+			for (Path cpu : stream) {
+				try {
+					online.set(Integer.parseInt(cpu.getFileName().toString().substring(3)));
+				} catch (NumberFormatException e) {
+					// Not a CPU after all
+				}
+			}
+		} catch (Exception e) {
+			return new BitSet();
+		}
+		return online;
+	}
+
+	/**
+	 * Resolves an absolute path of the host below the given root, e.g. "/proc/self/cgroup" becomes
+	 * "root/proc/self/cgroup".
+	 */
+	static Path resolve(Path root, String absolutePath) {
+		int start = 0;
+		while (start < absolutePath.length() && absolutePath.charAt(start) == '/')
+			start++;
+		return start == absolutePath.length() ? root : root.resolve(absolutePath.substring(start));
+	}
+
+}
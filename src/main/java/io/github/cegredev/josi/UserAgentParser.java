@@ -0,0 +1,228 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Determines the operating system of an HTTP client from its {@code User-Agent} header.
+ * <p>
+ * All tokens are searched for in a single pass using a precompiled {@link MultiPatternMatcher}, no regular
+ * expressions are involved and the input is never copied. The returned operating systems are shared instances, so
+ * {@link #determine(CharSequence)} does not allocate at all. Instances of this class additionally keep a bounded,
+ * lock-free cache of recent results, which pays off because real traffic consists of relatively few distinct user
+ * agents.
+ */
+public final class UserAgentParser {
+
+	// The order of the patterns is their priority: If several of them occur, the one listed first wins. This is why,
+	// for example, Android comes before Linux and the iPhone comes before Mac OS X.
+	private static final String[] PATTERNS = {"Windows Phone", "Android", "CrOS", "iPhone", "iPad", "iPod",
+			"Windows NT ", "Windows 98", "Win98", "Windows 95", "Win95", "Windows XP", "Mac OS X ", "Macintosh",
+			"Linux Mint", "Ubuntu", "Fedora", "Debian", "CentOS", "Gentoo", "SUSE", "Red Hat", "Arch Linux", "Linux",
+			"SunOS", "FreeBSD", "Windows"};
+
+	private static final OperatingSystem[] RESULTS = {InternedOS.other(OtherOS.OS.UNKNOWN),
+			InternedOS.other(OtherOS.OS.ANDROID), InternedOS.other(OtherOS.OS.CHROME_OS),
+			InternedOS.other(OtherOS.OS.IOS), InternedOS.other(OtherOS.OS.IOS), InternedOS.other(OtherOS.OS.IOS),
+			// Windows NT and Mac OS X are followed by a version that has to be parsed
+			null, InternedOS.win(WinOS.Version.WIN_98, false), InternedOS.win(WinOS.Version.WIN_98, false),
+			InternedOS.win(WinOS.Version.WIN_95, false), InternedOS.win(WinOS.Version.WIN_95, false),
+			InternedOS.win(WinOS.Version.WIN_XP, false), null, InternedOS.mac(-1, -1),
+			InternedOS.linux(LinuxOS.Distribution.LINUX_MINT), InternedOS.linux(LinuxOS.Distribution.UBUNTU),
+			InternedOS.linux(LinuxOS.Distribution.FEDORA), InternedOS.linux(LinuxOS.Distribution.DEBIAN),
+			InternedOS.linux(LinuxOS.Distribution.CENTOS), InternedOS.linux(LinuxOS.Distribution.GENTOO),
+			InternedOS.linux(LinuxOS.Distribution.SUSE),
+			InternedOS.linux(LinuxOS.Distribution.RED_HAT_ENTERPRISE_LINUX),
+			InternedOS.linux(LinuxOS.Distribution.ARCH_LINUX), InternedOS.linux(LinuxOS.Distribution.UNKNOWN),
+			InternedOS.other(OtherOS.OS.SOLARIS), InternedOS.other(OtherOS.OS.FREEBSD),
+			InternedOS.win(WinOS.Version.UNKNOWN, false)};
+
+	private static final int WINDOWS_NT = 6, MAC_OS_X = 12;
+
+	private static final MultiPatternMatcher MATCHER = new MultiPatternMatcher(PATTERNS);
+
+	private static final OperatingSystem UNKNOWN = InternedOS.other(OtherOS.OS.UNKNOWN);
+
+	private final AtomicReferenceArray<CacheEntry> cache;
+
+	private final int mask;
+
+	/**
+	 * Creates a parser with a cache of 4096 entries.
+	 */
+	public UserAgentParser() {
+		this(4096);
+	}
+
+	/**
+	 * @param cacheSize The maximum number of cached results, rounded up to the next power of two. Zero disables
+	 *                  caching.
+	 */
+	public UserAgentParser(int cacheSize) {
+		if (cacheSize < 0)
+			throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+
+		int size = cacheSize <= 1 ? cacheSize : Integer.highestOneBit(cacheSize - 1) << 1;
+
+		this.cache = size == 0 ? null : new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Determines the operating system of the given user agent, consulting the cache first. Only {@link String}s are
+	 * cached, since other character sequences may be mutable.
+	 *
+	 * @param userAgent The value of a {@code User-Agent} header.
+	 * @return The operating system of the client, or {@link OtherOS.OS#UNKNOWN} if it cannot be recognized.
+	 */
+	public OperatingSystem parse(CharSequence userAgent) {
+		if (cache == null || !(userAgent instanceof String))
+			return determine(userAgent);
+
+		String key = (String) userAgent;
+		int hash = key.hashCode();
+		// Spread the higher bits, since only the lower ones are used for indexing
+		int index = (hash ^ hash >>> 16) & mask;
+
+		CacheEntry entry = cache.get(index);
+		if (entry != null && entry.hash == hash && entry.userAgent.equals(key))
+			return entry.operatingSystem;
+
+		OperatingSystem operatingSystem = determine(key);
+		// Simply replaces whatever was in the slot before, which keeps the cache bounded without any bookkeeping
+		cache.set(index, new CacheEntry(key, hash, operatingSystem));
+		return operatingSystem;
+	}
+
+	/**
+	 * Determines the operating system from the given client hints and only parses the user agent if they are absent.
+	 *
+	 * @param userAgent       The value of a {@code User-Agent} header.
+	 * @param platform        The value of a {@code Sec-CH-UA-Platform} header or {@code null}.
+	 * @param platformVersion The value of a {@code Sec-CH-UA-Platform-Version} header or {@code null}.
+	 * @return The operating system of the client, or {@link OtherOS.OS#UNKNOWN} if it cannot be recognized.
+	 * @see ClientHints
+	 */
+	public OperatingSystem parse(CharSequence userAgent, CharSequence platform, CharSequence platformVersion) {
+		OperatingSystem operatingSystem = ClientHints.determine(platform, platformVersion);
+		return operatingSystem != null ? operatingSystem : parse(userAgent);
+	}
+
+	/**
+	 * Determines the operating system of the given user agent without caching.
+	 *
+	 * @param userAgent The value of a {@code User-Agent} header.
+	 * @return The operating system of the client, or {@link OtherOS.OS#UNKNOWN} if it cannot be recognized.
+	 */
+	public static OperatingSystem determine(CharSequence userAgent) {
+		long match = MATCHER.match(userAgent);
+		if (match == MultiPatternMatcher.NO_MATCH)
+			return UNKNOWN;
+
+		int pattern = MultiPatternMatcher.pattern(match), end = MultiPatternMatcher.end(match);
+
+		if (pattern == WINDOWS_NT)
+			return InternedOS.win(determineNTVersion(userAgent, end), false);
+
+		if (pattern == MAC_OS_X)
+			return determineMacVersion(userAgent, end);
+
+		return RESULTS[pattern];
+	}
+
+	/**
+	 * Maps the NT kernel version following "Windows NT " to a Windows version. Note that Windows 11 still reports NT
+	 * 10.0, so it cannot be distinguished from Windows 10 this way.
+	 */
+	private static WinOS.Version determineNTVersion(CharSequence userAgent, int start) {
+		int major = -1, minor = -1, i = start, length = userAgent.length();
+
+		for (; i < length && isDigit(userAgent.charAt(i)); i++)
+			major = Math.max(major, 0) * 10 + userAgent.charAt(i) - '0';
+
+		if (i < length && userAgent.charAt(i) == '.')
+			for (i++; i < length && isDigit(userAgent.charAt(i)); i++)
+				minor = Math.max(minor, 0) * 10 + userAgent.charAt(i) - '0';
+
+		switch (major) {
+			case 5:
+				// 5.0 is Windows 2000, 5.2 is XP x64 or Server 2003
+				return minor == 1 || minor == 2 ? WinOS.Version.WIN_XP : WinOS.Version.UNKNOWN;
+			case 6:
+				switch (minor) {
+					case 0:
+						return WinOS.Version.WIN_VISTA;
+					case 1:
+						return WinOS.Version.WIN_7;
+					case 2:
+						return WinOS.Version.WIN_8;
+					case 3:
+						return WinOS.Version.WIN_8_1;
+					default:
+						return WinOS.Version.UNKNOWN;
+				}
+			case 10:
+				return WinOS.Version.WIN_10;
+			default:
+				return WinOS.Version.UNKNOWN;
+		}
+	}
+
+	/**
+	 * Parses the version following "Mac OS X ", which uses underscores in most browsers and dots in Firefox.
+	 */
+	private static MacOS determineMacVersion(CharSequence userAgent, int start) {
+		int major = -1, minor = -1, i = start, length = userAgent.length();
+
+		for (; i < length && isDigit(userAgent.charAt(i)); i++)
+			major = Math.max(major, 0) * 10 + userAgent.charAt(i) - '0';
+
+		if (i < length && (userAgent.charAt(i) == '_' || userAgent.charAt(i) == '.'))
+			for (i++; i < length && isDigit(userAgent.charAt(i)); i++)
+				minor = Math.max(minor, 0) * 10 + userAgent.charAt(i) - '0';
+
+		return InternedOS.mac(major, minor);
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static final class CacheEntry {
+
+		private final String userAgent;
+
+		private final int hash;
+
+		private final OperatingSystem operatingSystem;
+
+		private CacheEntry(String userAgent, int hash, OperatingSystem operatingSystem) {
+			this.userAgent = userAgent;
+			this.hash = hash;
+			this.operatingSystem = operatingSystem;
+		}
+	}
+
+}
@@ -43,9 +43,30 @@ public class WinOS extends OperatingSystem {
 		return server;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof WinOS))
+			return false;
+
+		WinOS other = (WinOS) o;
+		return version == other.version && server == other.server;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * version.hashCode() + (server ? 1 : 0);
+	}
+
+	@Override
+	public String toString() {
+		return "WinOS{version=" + version + ", server=" + server + "}";
+	}
+
 	public enum Version {
 
-		WIN_95, WIN_98, WIN_XP, WIN_VISTA, WIN_7, WIN_8, WIN_8_1, WIN_10, UNKNOWN
+		WIN_95, WIN_98, WIN_XP, WIN_VISTA, WIN_7, WIN_8, WIN_8_1, WIN_10, WIN_11, UNKNOWN
 
 	}
 
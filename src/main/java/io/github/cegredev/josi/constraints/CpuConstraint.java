@@ -0,0 +1,78 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi.constraints;
+
+import io.github.cegredev.josi.Architecture;
+import io.github.cegredev.josi.CpuFeature;
+import io.github.cegredev.josi.CpuInfo;
+
+import java.util.Arrays;
+
+/**
+ * Conditions on the processor of the host, independent of the operating system family.
+ */
+public class CpuConstraint<T> {
+
+	private final OSConstraint<T> target;
+
+	private final CpuInfo cpu;
+
+	public CpuConstraint(OSConstraint<T> target, CpuInfo cpu) {
+		this.target = target;
+		this.cpu = cpu;
+	}
+
+	public CpuConstraint<T> arch(Architecture... architectures) {
+		boolean matches = Arrays.asList(architectures).contains(cpu.getArchitecture());
+		getTarget().addCondition(os -> matches);
+		return this;
+	}
+
+	/**
+	 * Requires all of the given features to be supported.
+	 */
+	public CpuConstraint<T> hasFeature(CpuFeature... features) {
+		long mask = CpuFeature.mask(features);
+		getTarget().addCondition(os -> (cpu.getFeatureBits() & mask) == mask);
+		return this;
+	}
+
+	/**
+	 * Requires at least one of the given features to be supported.
+	 */
+	public CpuConstraint<T> hasAnyFeature(CpuFeature... features) {
+		long mask = CpuFeature.mask(features);
+		getTarget().addCondition(os -> (cpu.getFeatureBits() & mask) != 0);
+		return this;
+	}
+
+	public OSConstraint<T> general() {
+		return getTarget();
+	}
+
+	protected OSConstraint<T> getTarget() {
+		return target;
+	}
+
+}
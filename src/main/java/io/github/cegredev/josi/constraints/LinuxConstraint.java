@@ -24,7 +24,12 @@
 package io.github.cegredev.josi.constraints;
 
 import io.github.cegredev.josi.CurrentOS;
+import io.github.cegredev.josi.HugePages;
+import io.github.cegredev.josi.KernelVersion;
+import io.github.cegredev.josi.Libc;
+import io.github.cegredev.josi.LinuxEnvironment;
 import io.github.cegredev.josi.LinuxOS;
+import io.github.cegredev.josi.SecurityProfile;
 
 import java.util.Arrays;
 
@@ -38,6 +43,94 @@ public class LinuxConstraint<T> extends SpecificConstraint<LinuxOS, T> {
 		return addToTarget(os -> Arrays.asList(distros).contains(os.getDistro()));
 	}
 
+	/**
+	 * Requires the kernel to be at least the given version. Unknown kernel versions never match.
+	 */
+	public LinuxConstraint<T> kernelAtLeast(int major, int minor) {
+		int version = KernelVersion.pack(major, minor, 0);
+		return addToTarget(os -> {
+			int packed = os.getKernelVersion().packed();
+			return packed != 0 && packed >= version;
+		});
+	}
+
+	/**
+	 * Requires the kernel to be older than the given version. Unknown kernel versions never match.
+	 */
+	public LinuxConstraint<T> kernelBelow(int major, int minor) {
+		int version = KernelVersion.pack(major, minor, 0);
+		return addToTarget(os -> {
+			int packed = os.getKernelVersion().packed();
+			return packed != 0 && packed < version;
+		});
+	}
+
+	public LinuxConstraint<T> libc(Libc.Flavor... flavors) {
+		return addToTarget(os -> Arrays.asList(flavors).contains(os.getLibc().getFlavor()));
+	}
+
+	/**
+	 * Requires glibc of at least the given version, which also excludes systems using a different C library.
+	 */
+	public LinuxConstraint<T> glibcAtLeast(int major, int minor) {
+		return addToTarget(os -> os.getLibc().isGlibcAtLeast(major, minor));
+	}
+
+	public LinuxConstraint<T> thp(HugePages.ThpMode... modes) {
+		return addToTarget(os -> Arrays.asList(modes).contains(os.getHugePages().getThpMode()));
+	}
+
+	/**
+	 * Requires at least the given amount of memory to be free in reserved huge pages of the given size.
+	 *
+	 * @param pageSize The size of the huge pages in bytes, e.g. 2 MiB.
+	 * @param bytes    The amount of memory in bytes.
+	 */
+	public LinuxConstraint<T> hugePagesFree(long pageSize, long bytes) {
+		return addToTarget(os -> {
+			HugePages.Pool pool = os.getHugePages().getPool(pageSize);
+			return pool != null && pool.getFreeBytes() >= bytes;
+		});
+	}
+
+	public LinuxConstraint<T> container(LinuxEnvironment.Container... containers) {
+		return addToTarget(os -> Arrays.asList(containers).contains(os.getEnvironment().getContainer()));
+	}
+
+	public LinuxConstraint<T> wsl(LinuxEnvironment.Wsl... versions) {
+		return addToTarget(os -> Arrays.asList(versions).contains(os.getEnvironment().getWsl()));
+	}
+
+	public LinuxConstraint<T> hypervisor(LinuxEnvironment.Hypervisor... hypervisors) {
+		return addToTarget(os -> Arrays.asList(hypervisors).contains(os.getEnvironment().getHypervisor()));
+	}
+
+	/**
+	 * Requires the process to hold all the given capabilities in its effective set.
+	 */
+	public LinuxConstraint<T> capabilities(SecurityProfile.Capability... capabilities) {
+		return addToTarget(os -> {
+			SecurityProfile profile = os.getSecurityProfile();
+			for (SecurityProfile.Capability capability : capabilities)
+				if (!profile.hasCapability(capability))
+					return false;
+			return true;
+		});
+	}
+
+	public LinuxConstraint<T> seccomp(SecurityProfile.Seccomp... modes) {
+		return addToTarget(os -> Arrays.asList(modes).contains(os.getSecurityProfile().getSeccomp()));
+	}
+
+	/**
+	 * Requires the process to be allowed to lock at least the given amount of memory.
+	 *
+	 * @param bytes The amount of memory in bytes.
+	 */
+	public LinuxConstraint<T> canLockMemory(long bytes) {
+		return addToTarget(os -> os.getSecurityProfile().canLockMemory(bytes));
+	}
+
 	@Override
 	protected CurrentOS.Family getFamily() {
 		return CurrentOS.Family.LINUX;
@@ -82,6 +82,20 @@ public class OSConstraint<T> {
 		return new LinuxConstraint<>(this);
 	}
 
+	/**
+	 * Adds conditions on the processor of the current machine.
+	 */
+	public CpuConstraint<T> cpu() {
+		return cpu(CpuInfo.current());
+	}
+
+	/**
+	 * Adds conditions on the given processor, e.g. to select code for a machine other than the current one.
+	 */
+	public CpuConstraint<T> cpu(CpuInfo cpu) {
+		return new CpuConstraint<>(this, cpu);
+	}
+
 	public OSConstraint<T> pick(T data) {
 		getLastPair().setData(data);
 
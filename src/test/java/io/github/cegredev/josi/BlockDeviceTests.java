@@ -0,0 +1,128 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the lookup of the {@link BlockDevice} of a path.
+ */
+public class BlockDeviceTests {
+
+	private static final String MOUNTINFO = "22 1 259:2 / / rw,relatime shared:1 - ext4 /dev/nvme0n1p2 rw\n"
+			+ "23 22 0:21 / /proc rw,nosuid,nodev,noexec,relatime shared:12 - proc proc rw\n"
+			+ "40 22 8:1 / /var/lib/data rw,noatime shared:20 - xfs /dev/sda1 rw,attr2,inode64\n"
+			+ "41 22 0:45 / /var/lib/data/tmp rw,nosuid,nodev shared:21 - tmpfs tmpfs rw,size=1024k\n"
+			+ "42 22 8:1 / /srv/old\\040files rw shared:22 - xfs /dev/sda1 rw\n"
+			+ "43 22 0:35 /@pool /mnt/pool rw,relatime shared:23 - btrfs /dev/sdb2 rw,ssd,subvol=/@pool\n";
+
+	@TempDir
+	Path root;
+
+	private static void write(Path file, String content) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, (content + "\n").getBytes());
+	}
+
+	private void createDisk(String devicePath, String partition, String number, boolean rotational,
+							String scheduler) throws IOException {
+		Path disk = root.resolve("sys/devices/" + devicePath);
+		Path queue = disk.resolve("queue");
+		write(queue.resolve("rotational"), rotational ? "1" : "0");
+		write(queue.resolve("scheduler"), scheduler);
+		write(queue.resolve("nr_requests"), rotational ? "64" : "1023");
+		write(queue.resolve("read_ahead_kb"), "128");
+		write(queue.resolve("optimal_io_size"), "0");
+		write(queue.resolve("logical_block_size"), "512");
+		write(queue.resolve("physical_block_size"), "4096");
+		write(disk.resolve(partition).resolve("partition"), "1");
+
+		write(disk.resolve(partition).resolve("dev"), number);
+
+		Path link = Files.createDirectories(root.resolve("sys/dev/block")).resolve(number);
+		Files.createSymbolicLink(link, Paths.get("../../devices/" + devicePath + "/" + partition));
+		link = Files.createDirectories(root.resolve("sys/class/block")).resolve(partition);
+		Files.createSymbolicLink(link, Paths.get("../../devices/" + devicePath + "/" + partition));
+	}
+
+	@BeforeEach
+	public void createRoot() throws IOException {
+		write(root.resolve("proc/self/mountinfo"), MOUNTINFO);
+		createDisk("pci0000:00/0000:00:1d.0/nvme/nvme0/nvme0n1", "nvme0n1p2", "259:2", false, "[none] mq-deadline");
+		createDisk("pci0000:00/0000:00:17.0/ata1/host0/target0:0:0/0:0:0:0/block/sda", "sda1", "8:1", true,
+				"mq-deadline kyber [bfq] none");
+		createDisk("pci0000:00/0000:00:17.0/ata2/host1/target1:0:0/1:0:0:0/block/sdb", "sdb2", "8:18", false,
+				"[mq-deadline] none");
+	}
+
+	@Test
+	public void testLookup() {
+		LinuxOS os = new LinuxOS(LinuxOS.Distribution.DEBIAN, root);
+
+		BlockDevice nvme = os.getBlockDevice(Paths.get("/home/user/.cache"));
+		assertEquals("nvme0n1p2", nvme.getName());
+		assertEquals(BlockDevice.Type.NVME, nvme.getType());
+		assertEquals("none", nvme.getScheduler());
+		assertEquals(1023, nvme.getQueueDepth());
+		assertEquals(259, nvme.getMajor());
+		assertEquals(2, nvme.getMinor());
+
+		BlockDevice hdd = os.getBlockDevice(Paths.get("/var/lib/data/segments/../index"));
+		assertEquals("sda1", hdd.getName());
+		assertEquals(BlockDevice.Type.HDD, hdd.getType());
+		assertTrue(hdd.isRotational());
+		assertEquals("bfq", hdd.getScheduler());
+		assertEquals(64, hdd.getQueueDepth());
+		assertEquals(128, hdd.getReadAheadKb());
+		assertEquals(0, hdd.getOptimalIoSize());
+		assertEquals(4096, hdd.getPhysicalBlockSize());
+
+		assertSame(hdd, os.getBlockDevice(Paths.get("/srv/old files/2020")), "The device was not cached!");
+		// A mount point that is only a prefix of the path's name does not contain it
+		assertSame(nvme, os.getBlockDevice(Paths.get("/var/lib/database")));
+		assertNull(os.getBlockDevice(Paths.get("/var/lib/data/tmp/upload")));
+
+		// btrfs reports an anonymous device, the source still leads to the disk
+		BlockDevice ssd = os.getBlockDevice(Paths.get("/mnt/pool/images"));
+		assertEquals("sdb2", ssd.getName());
+		assertEquals(BlockDevice.Type.SSD, ssd.getType());
+		assertEquals(8, ssd.getMajor());
+		assertEquals(18, ssd.getMinor());
+	}
+
+	@Test
+	public void testNoFileSystem() {
+		assertNull(new LinuxOS(LinuxOS.Distribution.DEBIAN).getBlockDevice(Paths.get("/")));
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of control group limits in {@link CGroupLimits}.
+ */
+public class CGroupLimitsTests {
+
+	private static final Path BASE_PATH = Paths.get("src/test/resources/cgroup");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testV2() {
+		CGroupLimits limits = new LinuxOS(LinuxOS.Distribution.UBUNTU, BASE_PATH.resolve("v2")).getCGroupLimits();
+
+		assertEquals(2, limits.getVersion());
+		assertEquals(1.5, limits.getCpuLimit());
+		assertEquals(150000, limits.getCpuQuota());
+		assertEquals(100000, limits.getCpuPeriod());
+		// The limit of the parent group applies
+		assertEquals(536870912, limits.getMemoryLimit());
+		assertEquals(5, limits.getCpuSet().cardinality());
+		assertEquals(2, limits.getEffectiveProcessors(64));
+	}
+
+	@Test
+	public void testV1() {
+		CGroupLimits limits = new LinuxOS(LinuxOS.Distribution.UBUNTU, BASE_PATH.resolve("v1")).getCGroupLimits();
+
+		assertEquals(1, limits.getVersion());
+		assertEquals(2.0, limits.getCpuLimit());
+		assertEquals(1073741824, limits.getMemoryLimit());
+		assertEquals(8, limits.getCpuSet().cardinality());
+		assertEquals(2, limits.getEffectiveProcessors(64));
+	}
+
+	@Test
+	public void testNone() {
+		CGroupLimits limits = new LinuxOS(LinuxOS.Distribution.UBUNTU).getCGroupLimits();
+
+		assertEquals(0, limits.getVersion());
+		assertFalse(limits.isCpuLimited());
+		assertFalse(limits.isMemoryLimited());
+		assertNull(limits.getCpuSet());
+		assertEquals(12, limits.getEffectiveProcessors(12));
+	}
+
+	@Test
+	public void testCpuList() {
+		BitSet cpus = SysFiles.parseCpuList("0-3,8,10-11\n");
+		assertEquals(7, cpus.cardinality());
+		assertTrue(cpus.get(3) && cpus.get(8) && cpus.get(11));
+		assertFalse(cpus.get(9));
+
+		// Malformed lists never throw
+		assertTrue(SysFiles.parseCpuList("5-3").isEmpty());
+		assertTrue(SysFiles.parseCpuList("0-x").isEmpty());
+		assertTrue(SysFiles.parseCpuList("").isEmpty());
+		assertTrue(SysFiles.parseCpuList(null).isEmpty());
+	}
+
+	@Test
+	public void testRefresh() throws IOException {
+		Path source = BASE_PATH.resolve("v2");
+		try (Stream<Path> files = Files.walk(source)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Path target = directory.resolve(source.relativize(file).toString());
+				if (Files.isDirectory(file))
+					Files.createDirectories(target);
+				else
+					Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		LinuxOS os = new LinuxOS(LinuxOS.Distribution.UBUNTU, directory);
+		assertEquals(1.5, os.getCGroupLimits().getCpuLimit());
+
+		Path group = directory.resolve("sys/fs/cgroup/kubepods.slice/pod123/cri-abc");
+		Files.write(group.resolve("cpu.max"), "400000 100000\n".getBytes());
+		Files.write(group.resolve("memory.max"), "268435456\n".getBytes());
+		assertEquals(1.5, os.getCGroupLimits().getCpuLimit(), "Limits were read again without a refresh!");
+
+		CGroupLimits refreshed = os.refreshCGroupLimits();
+		assertEquals(4.0, refreshed.getCpuLimit());
+		assertEquals(268435456, refreshed.getMemoryLimit());
+		assertSame(refreshed, os.getCGroupLimits());
+	}
+
+}
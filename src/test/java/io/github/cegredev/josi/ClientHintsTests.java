@@ -0,0 +1,78 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the recognition of operating systems from client hints in {@link ClientHints}.
+ */
+public class ClientHintsTests {
+
+	private static final String FAIL_MESSAGE = "Did not determine the correct OS for the given client hints.";
+
+	@Test
+	public void testWindows() {
+		assertEquals(new WinOS(WinOS.Version.WIN_11, false), ClientHints.determine("\"Windows\"", "\"13.0.0\""),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_11, false), ClientHints.determine("\"Windows\"", "\"15.0.0\""),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_10, false), ClientHints.determine("\"Windows\"", "\"10.0.0\""),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_8_1, false), ClientHints.determine("\"Windows\"", "\"0.3.0\""),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_7, false), ClientHints.determine(" \"Windows\" ", "\"0.1.0\""),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.UNKNOWN, false), ClientHints.determine("\"Windows\"", null),
+				FAIL_MESSAGE);
+	}
+
+	@Test
+	public void testOthers() {
+		assertEquals(new MacOS(14, 1), ClientHints.determine("\"macOS\"", "\"14.1.0\""), FAIL_MESSAGE);
+		assertEquals(new MacOS(-1, -1), ClientHints.determine("\"macOS\"", "\"\""), FAIL_MESSAGE);
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), ClientHints.determine("\"Linux\"", "\"\""),
+				FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.ANDROID), ClientHints.determine("\"Android\"", "\"14.0.0\""),
+				FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.CHROME_OS), ClientHints.determine("\"Chrome OS\"", null), FAIL_MESSAGE);
+		assertNull(ClientHints.determine("\"Unknown\"", null), FAIL_MESSAGE);
+		assertNull(ClientHints.determine(null, null), FAIL_MESSAGE);
+	}
+
+	@Test
+	public void testFallback() {
+		String userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)";
+
+		assertEquals(new WinOS(WinOS.Version.WIN_11, false), ClientHints.determine(userAgent,
+				"\"Windows\"", "\"14.0.0\""), FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_10, false), ClientHints.determine(userAgent, null, null),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_11, false), new UserAgentParser().parse(userAgent, "\"Windows\"",
+				"\"13.0.0\""), FAIL_MESSAGE);
+	}
+
+}
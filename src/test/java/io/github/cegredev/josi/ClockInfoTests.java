@@ -0,0 +1,58 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the clock source detection and timer costs of {@link ClockInfo}.
+ */
+public class ClockInfoTests {
+
+	@Test
+	public void testClocksource() {
+		ClockInfo clock = ClockInfo.read(Paths.get("src/test/resources/clock"));
+
+		assertEquals("xen", clock.getClocksource());
+		assertEquals(Arrays.asList("xen", "tsc", "hpet", "acpi_pm"), clock.getAvailableClocksources());
+		assertFalse(clock.isFastClocksource());
+	}
+
+	@Test
+	public void testCost() {
+		ClockInfo clock = ClockInfo.current();
+
+		assertSame(clock, ClockInfo.current(), "The benchmark ran twice!");
+		assertTrue(clock.getNanoTimeCost() > 0);
+		assertTrue(clock.getCurrentTimeMillisCost() > 0);
+		// Even a system call does not take a millisecond
+		assertTrue(clock.getNanoTimeCost() < 1_000_000);
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.github.cegredev.josi.CloudInfo.Provider.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the identification of cloud providers in {@link CloudInfo}.
+ */
+public class CloudInfoTests {
+
+	private static final Path BASE_PATH = Paths.get("src/test/resources/cloud");
+
+	private static CloudInfo read(String provider) {
+		return new LinuxOS(LinuxOS.Distribution.UBUNTU, BASE_PATH.resolve(provider)).getCloudInfo();
+	}
+
+	@Test
+	public void testRead() {
+		CloudInfo aws = read("aws");
+		assertEquals(AWS, aws.getProvider());
+		assertEquals("c7g.2xlarge", aws.getInstanceType());
+		assertEquals("c7g", aws.getInstanceFamily());
+		assertEquals("Amazon EC2", aws.getSysVendor());
+
+		CloudInfo gcp = read("gcp");
+		assertEquals(GCP, gcp.getProvider());
+		assertNull(gcp.getInstanceType());
+
+		assertEquals(AZURE, read("azure").getProvider());
+		assertFalse(read("does-not-exist").isCloud());
+		assertFalse(new LinuxOS(LinuxOS.Distribution.UBUNTU).getCloudInfo().isCloud());
+	}
+
+	@Test
+	public void testIdentify() {
+		assertEquals(AWS, CloudInfo.identify("Xen", "HVM domU", "", "", "4.11.amazon"));
+		assertEquals(NONE, CloudInfo.identify("Microsoft Corporation", "Virtual Machine", null, "None", null));
+		assertEquals(ORACLE, CloudInfo.identify("QEMU", "Standard PC (i440FX + PIIX, 1996)", null, "OracleCloud.com",
+				null));
+		assertEquals(DIGITALOCEAN, CloudInfo.identify("DigitalOcean", "Droplet", null, null, null));
+		assertEquals(HETZNER, CloudInfo.identify("Hetzner", "vServer", null, null, null));
+		assertEquals(OPENSTACK, CloudInfo.identify("OpenStack Foundation", "OpenStack Nova", null, null, null));
+		assertEquals(NONE, CloudInfo.identify("Dell Inc.", "PowerEdge R640", "Dell Inc.", "", null));
+	}
+
+}
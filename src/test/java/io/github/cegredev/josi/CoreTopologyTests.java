@@ -0,0 +1,112 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the core topology and frequency governor detection of {@link CoreTopology}.
+ */
+public class CoreTopologyTests {
+
+	private static BitSet cpus(int from, int to) {
+		BitSet cpus = new BitSet();
+		cpus.set(from, to + 1);
+		return cpus;
+	}
+
+	@Test
+	public void testIntelHybrid() {
+		CoreTopology topology = CoreTopology.read(Paths.get("src/test/resources/topology/hybrid"));
+
+		assertEquals(4, topology.getCpus().size());
+		assertTrue(topology.isHybrid());
+		assertEquals(cpus(0, 1), topology.getFastestCpus());
+		assertEquals(cpus(2, 3), topology.getPerformanceClasses().get(1));
+
+		// One P-core with two threads and two E-cores
+		assertEquals(3, topology.getCoreCount());
+		assertTrue(topology.isSmtActive());
+		assertEquals(cpus(0, 1), topology.getCpu(1).getSmtSiblings());
+
+		assertEquals(cpus(0, 3), topology.getFrequencyScaledCpus());
+		assertEquals("powersave", topology.getCpu(0).getGovernor());
+		assertEquals(5_400_000, topology.getCpu(0).getMaxFrequency());
+	}
+
+	@Test
+	public void testCapacity() {
+		CoreTopology topology = CoreTopology.read(Paths.get("src/test/resources/topology/arm"));
+
+		List<BitSet> classes = topology.getPerformanceClasses();
+		assertEquals(2, classes.size());
+		assertEquals(cpus(0, 1), classes.get(0));
+		assertEquals(cpus(2, 3), classes.get(1));
+
+		assertEquals(4, topology.getCoreCount());
+		assertFalse(topology.isSmtActive());
+		assertEquals(cpus(2, 3), topology.getFrequencyScaledCpus());
+		assertEquals(446, topology.getCpu(2).getCapacity());
+		assertEquals(1_200_000, topology.getCpu(2).getScalingMaxFrequency());
+		assertNull(topology.getCpu(4));
+	}
+
+	@Test
+	public void testPreferredCores() {
+		CoreTopology topology = CoreTopology.read(Paths.get("src/test/resources/topology/preferred"));
+
+		// The preferred cores boost slightly higher, which does not make the processor hybrid
+		assertFalse(topology.isHybrid());
+		assertEquals(1, topology.getPerformanceClasses().size());
+		assertEquals(cpus(0, 7), topology.getFastestCpus());
+		assertEquals(4, topology.getCoreCount());
+		assertTrue(topology.getFrequencyScaledCpus().isEmpty());
+	}
+
+	@Test
+	public void testFrequencyFallback() {
+		CoreTopology topology = CoreTopology.read(Paths.get("src/test/resources/topology/hybrid-legacy"));
+
+		// Without the PMU lists, the E-cores are still more than 15 percent slower
+		assertTrue(topology.isHybrid());
+		assertEquals(cpus(0, 1), topology.getFastestCpus());
+		assertEquals(cpus(2, 3), topology.getPerformanceClasses().get(1));
+	}
+
+	@Test
+	public void testUnknown() {
+		CoreTopology topology = CoreTopology.read(Paths.get("src/test/resources/nonexistent"));
+
+		assertTrue(topology.getCpus().isEmpty());
+		assertFalse(topology.isHybrid());
+		assertTrue(topology.getFastestCpus().isEmpty());
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the cache hierarchy detection of {@link CpuCaches}.
+ */
+public class CpuCachesTests {
+
+	@Test
+	public void testHierarchy() {
+		CpuCaches caches = CpuCaches.read(Paths.get("src/test/resources/caches"));
+
+		// Two L1d, two L2 and one L3, instruction caches are omitted
+		assertEquals(5, caches.getCaches().size());
+		assertEquals(2, caches.getCount(1));
+		assertEquals(2, caches.getCount(2));
+		assertEquals(1, caches.getCount(3));
+		assertEquals(64, caches.getLineSize());
+
+		CpuCaches.Cache l1 = caches.getCache(1);
+		assertEquals(CpuCaches.Type.DATA, l1.getType());
+		assertEquals(48 * 1024, l1.getSize());
+		assertEquals(12, l1.getAssociativity());
+		assertEquals(64, l1.getSets());
+
+		CpuCaches.Cache l3 = caches.getCache(3);
+		assertEquals(CpuCaches.Type.UNIFIED, l3.getType());
+		assertEquals(30 * 1024 * 1024, l3.getSize());
+		BitSet all = new BitSet();
+		all.set(0, 4);
+		assertEquals(all, l3.getSharedCpus());
+
+		assertNull(caches.getCache(4));
+	}
+
+	@Test
+	public void testUnknown() {
+		CpuCaches caches = CpuCaches.read(Paths.get("src/test/resources/nonexistent"));
+
+		assertTrue(caches.getCaches().isEmpty());
+		assertNull(caches.getCache(1));
+		assertTrue(caches.getLineSize() == 64 || caches.getLineSize() == 128);
+	}
+
+}
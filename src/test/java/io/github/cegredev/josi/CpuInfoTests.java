@@ -0,0 +1,89 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import io.github.cegredev.josi.constraints.OSConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static io.github.cegredev.josi.CpuFeature.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the architecture and feature detection in {@link CpuInfo} and {@link Architecture}.
+ */
+public class CpuInfoTests {
+
+	private static final CpuInfo X86 = CpuInfo.read(Paths.get("src/test/resources/cpu/x86"), Architecture.X86_64);
+
+	private static final CpuInfo ARM = CpuInfo.read(Paths.get("src/test/resources/cpu/arm"), Architecture.AARCH64);
+
+	@Test
+	public void testArchitecture() {
+		assertEquals(Architecture.X86_64, Architecture.fromProperty("amd64"));
+		assertEquals(Architecture.X86_64, Architecture.fromProperty("x86_64"));
+		assertEquals(Architecture.AARCH64, Architecture.fromProperty("arm64"));
+		assertEquals(Architecture.AARCH64, Architecture.fromProperty("aarch64"));
+		assertEquals(Architecture.X86, Architecture.fromProperty("i386"));
+		assertEquals(Architecture.UNKNOWN, Architecture.fromProperty("sparcv9"));
+		assertEquals(Architecture.UNKNOWN, Architecture.fromProperty(null));
+	}
+
+	@Test
+	public void testX86() {
+		assertEquals("Intel(R) Xeon(R) Gold 6230 CPU @ 2.10GHz", X86.getModelName());
+		assertTrue(X86.hasFeatures(SSE4_2, AVX2, FMA, AVX512F, AVX512_VNNI, AES_NI));
+		assertFalse(X86.hasFeature(SHA_NI));
+		assertFalse(X86.hasFeature(ARM_AES), "The AES flag of x86 was interpreted as the ARM one!");
+		assertFalse(X86.hasFeature(NEON));
+	}
+
+	@Test
+	public void testArm() {
+		assertTrue(ARM.hasFeatures(NEON, SVE, ARM_AES, ARM_SHA2, ARM_CRC32, LSE));
+		assertFalse(ARM.hasFeature(SVE2));
+		assertFalse(ARM.hasFeature(AES_NI));
+		assertNull(ARM.getModelName());
+	}
+
+	@Test
+	public void testConstraint() {
+		for (CpuInfo cpu : new CpuInfo[]{X86, ARM}) {
+			String kernel = new OSConstraint<String>("scalar")
+					.cpu(cpu).hasFeature(AVX512F, AVX512BW).general().pick("avx512")
+					.cpu(cpu).hasFeature(AVX2).general().pick("avx2")
+					.cpu(cpu).hasAnyFeature(SVE, SVE2).general().pick("sve")
+					.get(new LinuxOS(LinuxOS.Distribution.UBUNTU));
+
+			assertEquals(cpu == X86 ? "avx512" : "sve", kernel);
+		}
+
+		assertEquals("arm", new OSConstraint<String>()
+				.cpu(ARM).arch(Architecture.X86, Architecture.X86_64).general().pick("x86")
+				.cpu(ARM).arch(Architecture.AARCH64).general().pick("arm")
+				.get(new LinuxOS(LinuxOS.Distribution.UBUNTU)));
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the JSON output of {@link HostProfile}.
+ */
+public class HostProfileTests {
+
+	private static String toJson(OperatingSystem os) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		HostProfile.writeJson(os, builder);
+		return builder.toString();
+	}
+
+	@Test
+	public void testOperatingSystems() throws IOException {
+		assertEquals("{\"family\":\"WINDOWS\",\"version\":\"WIN_10\",\"server\":true}",
+				toJson(new WinOS(WinOS.Version.WIN_10, true)));
+		assertEquals("{\"family\":\"MAC\",\"major\":10,\"minor\":0}", toJson(new MacOS(10, 0)));
+		assertEquals("{\"family\":\"MAC\",\"major\":-1,\"minor\":-1}", toJson(new MacOS(-1, -1)));
+		assertEquals("{\"family\":\"LINUX\",\"distro\":\"UBUNTU\"}",
+				toJson(new LinuxOS(LinuxOS.Distribution.UBUNTU)));
+		assertEquals("{\"family\":\"OTHER\",\"os\":\"SOLARIS\"}", toJson(new OtherOS(OtherOS.OS.SOLARIS)));
+	}
+
+	@Test
+	public void testConstantPart() {
+		assertEquals("{\"os\":{\"family\":\"LINUX\",\"distro\":\"FEDORA\"},\"name\":\"Linux\",\"version\":"
+						+ "\"5.15.0-\\\"quoted\\\"\\n\",\"arch\":\"amd64\",\"javaVersion\":null,\"maxMemory\":1073741824,",
+				HostProfile.renderConstant(new LinuxOS(LinuxOS.Distribution.FEDORA), "Linux", "5.15.0-\"quoted\"\n",
+						"amd64", null, 1073741824L));
+	}
+
+	@Test
+	public void testCurrentHost() throws IOException {
+		StringBuilder builder = new StringBuilder();
+		HostProfile.writeJson(builder);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		HostProfile.writeJson(out);
+
+		assertEquals(builder.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8),
+				"Stream and appendable output differ!");
+		assertTrue(builder.toString().endsWith("\"availableProcessors\":"
+				+ Runtime.getRuntime().availableProcessors() + "}"));
+	}
+
+}
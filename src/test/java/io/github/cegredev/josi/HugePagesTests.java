@@ -0,0 +1,79 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import io.github.cegredev.josi.constraints.OSConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of huge page support in {@link HugePages}.
+ */
+public class HugePagesTests {
+
+	private static final Path ROOT = Paths.get("src/test/resources/hugepages");
+
+	private static final long MIB = 1024 * 1024;
+
+	@Test
+	public void testRead() {
+		HugePages hugePages = new LinuxOS(LinuxOS.Distribution.FEDORA, ROOT).getHugePages();
+
+		assertEquals(HugePages.ThpMode.MADVISE, hugePages.getThpMode());
+		assertEquals(HugePages.ThpDefrag.DEFER_MADVISE, hugePages.getThpDefrag());
+		assertTrue(hugePages.isThpAvailable());
+		assertEquals(2 * MIB, hugePages.getDefaultPageSize());
+
+		assertEquals(2, hugePages.getPools().size());
+		assertEquals(2 * MIB, hugePages.getPools().get(0).getPageSize(), "Pools are not sorted by page size!");
+		assertEquals(512, hugePages.getPool(2 * MIB).getTotal());
+		assertEquals(384, hugePages.getPool(2 * MIB).getFree());
+		assertEquals(2, hugePages.getPool(1024 * MIB).getTotal());
+		assertEquals(768 * MIB, hugePages.getFreeBytes());
+	}
+
+	@Test
+	public void testNone() {
+		HugePages hugePages = new LinuxOS(LinuxOS.Distribution.FEDORA).getHugePages();
+
+		assertEquals(HugePages.ThpMode.UNSUPPORTED, hugePages.getThpMode());
+		assertFalse(hugePages.isThpAvailable());
+		assertTrue(hugePages.getPools().isEmpty());
+	}
+
+	@Test
+	public void testConstraint() {
+		OSConstraint<String> allocator = new OSConstraint<String>()
+				.linux().hugePagesFree(1024 * MIB, 1024 * MIB).general().pick("1g")
+				.linux().hugePagesFree(2 * MIB, 512 * MIB).general().pick("2m")
+				.linux().thp(HugePages.ThpMode.ALWAYS, HugePages.ThpMode.MADVISE).general().pick("thp");
+
+		assertEquals("2m", allocator.get(new LinuxOS(LinuxOS.Distribution.FEDORA, ROOT)));
+	}
+
+}
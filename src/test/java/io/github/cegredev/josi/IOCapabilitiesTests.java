@@ -0,0 +1,96 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the I/O capabilities of an operating system in {@link IOCapabilities}.
+ */
+public class IOCapabilitiesTests {
+
+	private static final String MOUNTINFO = "22 1 259:2 / / rw,relatime shared:1 - ext4 /dev/nvme0n1p2 rw\n"
+			+ "41 22 0:45 / /run rw,nosuid,nodev shared:21 - tmpfs tmpfs rw,size=1024k\n"
+			+ "42 22 0:50 / /mnt/nfs rw,relatime shared:22 - nfs4 server:/export rw,vers=4.2,hard\n"
+			+ "43 22 0:51 / /mnt/old rw,relatime shared:23 - nfs4 server:/old rw,vers=4.0,hard\n"
+			+ "44 22 0:52 / /var/lib/docker rw,relatime - overlay overlay rw,lowerdir=/a,upperdir=/b\n";
+
+	@TempDir
+	Path root;
+
+	@Test
+	public void testLinux() throws IOException {
+		Files.write(Files.createDirectories(root.resolve("proc/self")).resolve("mountinfo"), MOUNTINFO.getBytes());
+		Files.write(Files.createDirectories(root.resolve("proc/sys/vm")).resolve("max_map_count"),
+				"65530\n".getBytes());
+
+		IOCapabilities capabilities = IOCapabilities.of(new LinuxOS(LinuxOS.Distribution.UBUNTU, root));
+		assertTrue(capabilities.isZeroCopyTransferSupported());
+		assertEquals(65530, capabilities.getMaxMapCount());
+		assertTrue(capabilities.getPageSize() >= 4096);
+
+		assertTrue(capabilities.isFallocateSupported(Paths.get("/home")));
+		assertTrue(capabilities.isFallocateSupported(Paths.get("/run/lock")));
+		assertTrue(capabilities.isFallocateSupported(Paths.get("/mnt/nfs/data")));
+		assertFalse(capabilities.isFallocateSupported(Paths.get("/mnt/old/data")));
+		assertFalse(capabilities.isFallocateSupported(Paths.get("/var/lib/docker/containers")));
+	}
+
+	@Test
+	public void testOthers() {
+		IOCapabilities windows = IOCapabilities.of(new WinOS(WinOS.Version.WIN_10, false));
+		assertTrue(windows.isZeroCopyTransferSupported());
+		assertEquals(-1, windows.getMaxMapCount());
+		assertFalse(windows.isFallocateSupported(Paths.get("C:\\")));
+
+		assertFalse(IOCapabilities.of(new OtherOS(OtherOS.OS.ANDROID)).isZeroCopyTransferSupported());
+		assertTrue(IOCapabilities.of(new OtherOS(OtherOS.OS.FREEBSD)).isZeroCopyTransferSupported());
+	}
+
+	@Test
+	public void testDirectIo() {
+		IOCapabilities capabilities = IOCapabilities.current();
+		// Whether it is supported depends on the machine, but probing must leave nothing behind
+		boolean supported = capabilities.isDirectIoSupported(root);
+		assertEquals(supported, capabilities.isDirectIoSupported(root));
+		assertEquals(0, root.toFile().list().length, "The probe left a file behind!");
+
+		// A directory that cannot be probed must not decide for the whole mount
+		IOCapabilities fresh = IOCapabilities.of(CurrentOS.get());
+		assertFalse(fresh.isDirectIoSupported(root.resolve("does-not-exist")));
+		assertEquals(supported, fresh.isDirectIoSupported(root));
+
+		// The probe would run on the host instead of the given root
+		assertFalse(IOCapabilities.of(new LinuxOS(LinuxOS.Distribution.UBUNTU, root)).isDirectIoSupported(root));
+	}
+
+}
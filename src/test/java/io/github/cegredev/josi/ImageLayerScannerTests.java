@@ -0,0 +1,185 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of operating systems in container image layers in {@link ImageLayerScanner}.
+ */
+public class ImageLayerScannerTests {
+
+	private static final Path OS_RELEASES = Paths.get("src/test/resources/etc/os-releases");
+
+	@TempDir
+	Path directory;
+
+	private static byte[] osRelease(String fileName) throws IOException {
+		return Files.readAllBytes(OS_RELEASES.resolve(fileName));
+	}
+
+	@Test
+	public void testSingleLayer() throws IOException {
+		Tar tar = new Tar().directory("etc/").symbolicLink("etc/os-release", "../usr/lib/os-release")
+				.file("bin/bash", new byte[10000]).file("usr/lib/os-release", osRelease("ubuntu0.txt"));
+
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UBUNTU),
+				ImageLayerScanner.detect(new ByteArrayInputStream(tar.toBytes())));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UBUNTU),
+				ImageLayerScanner.detect(new ByteArrayInputStream(tar.toGzipBytes())));
+	}
+
+	@Test
+	public void testLayers() throws IOException {
+		Path base = write("base.tar", new Tar().file("./etc/os-release", osRelease("debian0.txt"))
+				.file("./usr/lib/os-release", osRelease("arch0.txt")).toBytes());
+
+		// The upper layer deletes etc/os-release, so usr/lib/os-release of the base layer shines through
+		Path whiteout = write("whiteout.tar.gz", new Tar().file("etc/.wh.os-release", new byte[0]).toGzipBytes());
+		assertEquals(new LinuxOS(LinuxOS.Distribution.ARCH_LINUX), ImageLayerScanner.detect(Arrays.asList(base,
+				whiteout)));
+
+		// The upper layer hides all of etc and replaces usr/lib/os-release
+		Path opaque = write("opaque.tar", new Tar().file("etc/.wh..wh..opq", new byte[0])
+				.file("usr/lib/os-release", osRelease("fedora0.txt")).toBytes());
+		assertEquals(new LinuxOS(LinuxOS.Distribution.FEDORA), ImageLayerScanner.detect(Arrays.asList(base,
+				opaque)));
+
+		// The upper layer deletes the whole of usr and etc
+		Path deleted = write("deleted.tar", new Tar().file(".wh.usr", new byte[0]).file(".wh.etc", new byte[0])
+				.toBytes());
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), ImageLayerScanner.detect(Arrays.asList(base,
+				deleted)));
+
+		// An upper layer with unrelated changes
+		Path app = write("app.tar", new Tar().file("app/app.jar", new byte[2000]).toBytes());
+		assertEquals(new LinuxOS(LinuxOS.Distribution.DEBIAN), ImageLayerScanner.detect(Arrays.asList(base, app)));
+	}
+
+	@Test
+	public void testStopsEarly() throws IOException {
+		Path top = write("top.tar", new Tar().file("etc/os-release", osRelease("gentoo0.txt")).toBytes());
+
+		// The lower layer does not even exist, reading it would fail
+		assertEquals(new LinuxOS(LinuxOS.Distribution.GENTOO), ImageLayerScanner.detect(Arrays.asList(
+				directory.resolve("does-not-exist.tar"), top)));
+	}
+
+	@Test
+	public void testLongNames() throws IOException {
+		char[] longDirectory = new char[120];
+		Arrays.fill(longDirectory, 'a');
+
+		Tar tar = new Tar().pax("path=etc/os-release").file(new String(longDirectory) + "/placeholder",
+				osRelease("centos0.txt"));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.CENTOS),
+				ImageLayerScanner.detect(new ByteArrayInputStream(tar.toBytes())));
+	}
+
+	@Test
+	public void testOversizedHeader() {
+		// A GNU long name claiming to be 8 GiB, which must not be read into memory
+		byte[] tar = new Tar().entry("././@LongLink", 'L', new byte[0], "").toBytes();
+		byte[] size = "77777777777".getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(size, 0, tar, 124, size.length);
+
+		assertThrows(IOException.class, () -> ImageLayerScanner.detect(new ByteArrayInputStream(tar)));
+	}
+
+	private Path write(String name, byte[] content) throws IOException {
+		return Files.write(directory.resolve(name), content);
+	}
+
+	/**
+	 * Writes just enough of the ustar format for the tests.
+	 */
+	private static class Tar {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		private Tar entry(String name, char type, byte[] content, String linkName) {
+			byte[] header = new byte[512];
+			byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+			System.arraycopy(nameBytes, 0, header, 0, Math.min(100, nameBytes.length));
+			byte[] size = String.format("%011o", content.length).getBytes(StandardCharsets.US_ASCII);
+			System.arraycopy(size, 0, header, 124, size.length);
+			header[156] = (byte) type;
+			byte[] link = linkName.getBytes(StandardCharsets.UTF_8);
+			System.arraycopy(link, 0, header, 157, link.length);
+			System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+
+			out.write(header, 0, header.length);
+			out.write(content, 0, content.length);
+			out.write(new byte[(512 - content.length % 512) % 512], 0, (512 - content.length % 512) % 512);
+			return this;
+		}
+
+		private Tar file(String name, byte[] content) {
+			return entry(name, '0', content, "");
+		}
+
+		private Tar directory(String name) {
+			return entry(name, '5', new byte[0], "");
+		}
+
+		private Tar symbolicLink(String name, String target) {
+			return entry(name, '2', new byte[0], target);
+		}
+
+		private Tar pax(String record) {
+			String line = " " + record + "\n";
+			// The length includes its own digits
+			int length = line.length() + 2;
+			return entry("PaxHeader", 'x', (length + line).getBytes(StandardCharsets.UTF_8), "");
+		}
+
+		private byte[] toBytes() {
+			out.write(new byte[1024], 0, 1024);
+			return out.toByteArray();
+		}
+
+		private byte[] toGzipBytes() throws IOException {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+				gzip.write(toBytes());
+			}
+			return compressed.toByteArray();
+		}
+	}
+
+}
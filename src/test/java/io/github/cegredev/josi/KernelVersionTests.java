@@ -0,0 +1,88 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import io.github.cegredev.josi.constraints.OSConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the parsing and comparison of {@link KernelVersion}s.
+ */
+public class KernelVersionTests {
+
+	@Test
+	public void testParse() {
+		KernelVersion version = KernelVersion.parse("5.15.0-91-generic");
+		assertEquals(5, version.getMajor());
+		assertEquals(15, version.getMinor());
+		assertEquals(0, version.getPatch());
+		assertEquals("5.15.0-91-generic", version.getRelease());
+
+		assertEquals(337, KernelVersion.parse("4.9.337").getPatch());
+		assertEquals(KernelVersion.parse("6.1.0"), KernelVersion.parse("6.1"));
+		assertEquals(KernelVersion.parse("5.10.0"), KernelVersion.parse("5.10.0-microsoft-standard-WSL2"));
+
+		assertTrue(KernelVersion.parse("").isUnknown());
+		assertTrue(KernelVersion.parse(null).isUnknown());
+		assertTrue(KernelVersion.parse("generic").isUnknown());
+	}
+
+	@Test
+	public void testCompare() {
+		assertTrue(KernelVersion.parse("5.10.1").compareTo(KernelVersion.parse("5.9.200")) > 0);
+		assertTrue(KernelVersion.parse("4.19.0").compareTo(KernelVersion.parse("5.1.0")) < 0);
+		assertTrue(KernelVersion.parse("5.1.0").isAtLeast(5, 1));
+		assertFalse(KernelVersion.parse("5.0.21").isAtLeast(5, 1));
+		assertTrue(KernelVersion.UNKNOWN.compareTo(KernelVersion.parse("2.6.32")) < 0);
+	}
+
+	@Test
+	public void testConstraint() {
+		LinuxOS os = new LinuxOS(LinuxOS.Distribution.UBUNTU, Paths.get("src/test/resources/kernel"));
+		assertEquals(KernelVersion.parse("6.8.0"), os.getKernelVersion());
+
+		OSConstraint<String> io = new OSConstraint<String>()
+				.linux().kernelAtLeast(6, 9).general().pick("future")
+				.linux().kernelAtLeast(5, 1).general().pick("io_uring")
+				.linux().kernelBelow(5, 1).general().pick("epoll")
+				// Any Linux reaches this one, but only if the kernel conditions above all rejected it
+				.linux().general().pick("unknown");
+
+		assertEquals("io_uring", io.get(os));
+		assertEquals("unknown", io.get(new LinuxOS(LinuxOS.Distribution.UBUNTU)),
+				"An unknown kernel matched a condition!");
+
+		// Even the lowest version must not be assumed for an unknown kernel
+		OSConstraint<String> any = new OSConstraint<String>()
+				.linux().kernelAtLeast(0, 0).general().pick("any")
+				.linux().general().pick("unknown");
+		assertEquals("any", any.get(os));
+		assertEquals("unknown", any.get(new LinuxOS(LinuxOS.Distribution.UBUNTU)));
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import io.github.cegredev.josi.constraints.OSConstraint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of the C library in {@link Libc}.
+ */
+public class LibcTests {
+
+	@TempDir
+	Path root;
+
+	/**
+	 * Writes a minimal 64 bit little-endian ELF file whose only program header is a {@code PT_INTERP} one.
+	 */
+	private static void writeElf(Path file, String interpreter) throws IOException {
+		byte[] path = (interpreter + '\0').getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer elf = ByteBuffer.allocate(64 + 56 + path.length).order(ByteOrder.LITTLE_ENDIAN);
+		elf.putInt(0, 0x464C457F).put(4, (byte) 2).put(5, (byte) 1).put(6, (byte) 1);
+		elf.putShort(0x10, (short) 3).putShort(0x12, (short) 0x3E);
+		elf.putLong(0x20, 64).putShort(0x36, (short) 56).putShort(0x38, (short) 1);
+		elf.putInt(64, 3).putLong(64 + 8, 120).putLong(64 + 32, path.length);
+		elf.position(120);
+		elf.put(path);
+
+		Files.createDirectories(file.getParent());
+		Files.write(file, elf.array());
+	}
+
+	@Test
+	public void testMusl() throws IOException {
+		writeElf(root.resolve("bin/busybox"), "/lib/ld-musl-x86_64.so.1");
+		Files.createSymbolicLink(root.resolve("bin/sh"), root.getFileSystem().getPath("/bin/busybox"));
+
+		assertEquals("/lib/ld-musl-x86_64.so.1", NativeBinary.readInterpreter(root.resolve("bin/busybox")));
+
+		Libc libc = Libc.read(root);
+		assertEquals(Libc.Flavor.MUSL, libc.getFlavor());
+		assertEquals(-1, libc.getMajor());
+		assertFalse(libc.isGlibcAtLeast(2, 17));
+	}
+
+	@Test
+	public void testMuslProbe() throws IOException {
+		Files.createDirectories(root.resolve("lib"));
+		Files.createFile(root.resolve("lib/ld-musl-aarch64.so.1"));
+
+		assertEquals(Libc.Flavor.MUSL, Libc.read(root).getFlavor());
+	}
+
+	@Test
+	public void testGlibc() throws IOException {
+		writeElf(root.resolve("bin/sh"), "/lib64/ld-linux-x86-64.so.2");
+		Path library = Files.createDirectories(root.resolve("usr/lib/x86_64-linux-gnu")).resolve("libc.so.6");
+		Files.write(library, "\0\0GNU C Library (Debian GLIBC 2.36-9+deb12u4) stable release version 2.36.\nrelease"
+				.getBytes(StandardCharsets.US_ASCII));
+
+		Libc libc = Libc.read(root);
+		assertEquals(Libc.Flavor.GLIBC, libc.getFlavor());
+		assertEquals(2, libc.getMajor());
+		assertEquals(36, libc.getMinor());
+		assertTrue(libc.isGlibcAtLeast(2, 17));
+		assertFalse(libc.isGlibcAtLeast(2, 38));
+		assertFalse(libc.isGlibcAtLeast(3, 0));
+
+		LinuxOS os = new LinuxOS(LinuxOS.Distribution.DEBIAN, root);
+		assertEquals("glibc", new OSConstraint<String>()
+				.linux().libc(Libc.Flavor.MUSL).general().pick("musl")
+				.linux().glibcAtLeast(2, 34).general().pick("glibc")
+				.get(os));
+	}
+
+	@Test
+	public void testOldGlibc() throws IOException {
+		Files.createDirectories(root.resolve("lib64"));
+		Files.createFile(root.resolve("lib64/libc-2.17.so"));
+
+		Libc libc = Libc.read(root);
+		assertEquals(Libc.Flavor.GLIBC, libc.getFlavor());
+		assertEquals(17, libc.getMinor());
+	}
+
+	@Test
+	public void testUnknown() {
+		assertEquals(Libc.Flavor.UNKNOWN, Libc.read(root).getFlavor());
+		assertEquals(Libc.Flavor.UNKNOWN, new LinuxOS(LinuxOS.Distribution.ALPINE).getLibc().getFlavor());
+		assertEquals(LinuxOS.Distribution.ALPINE, LinuxOS.Distribution.fromID("alpine"));
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import io.github.cegredev.josi.constraints.OSConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+
+import static io.github.cegredev.josi.LinuxEnvironment.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of containers, WSL and hypervisors in {@link LinuxEnvironment}.
+ */
+public class LinuxEnvironmentTests {
+
+	private static final Path BASE_PATH = Paths.get("src/test/resources/environment");
+
+	private static LinuxEnvironment read(String root, Map<String, String> environment) {
+		return LinuxEnvironment.read(BASE_PATH.resolve(root), environment);
+	}
+
+	private static LinuxEnvironment read(String root) {
+		return read(root, Collections.emptyMap());
+	}
+
+	@Test
+	public void testContainers() {
+		assertEquals(Container.DOCKER, read("docker").getContainer());
+		assertEquals(Container.PODMAN, read("podman").getContainer());
+		assertEquals(Container.KUBERNETES, read("docker", Collections.singletonMap("KUBERNETES_SERVICE_HOST",
+				"10.96.0.1")).getContainer());
+		assertEquals(Container.LXC, read("kvm", Collections.singletonMap("container", "lxc")).getContainer());
+		assertEquals(Container.OTHER, read("kvm", Collections.singletonMap("container", "systemd-nspawn"))
+				.getContainer());
+		assertFalse(read("kvm").isContainerized());
+	}
+
+	@Test
+	public void testWsl() {
+		LinuxEnvironment wsl2 = read("wsl2");
+		assertEquals(Wsl.WSL2, wsl2.getWsl());
+		assertEquals(Hypervisor.HYPER_V, wsl2.getHypervisor());
+
+		LinuxEnvironment wsl1 = read("wsl1");
+		assertEquals(Wsl.WSL1, wsl1.getWsl());
+		assertFalse(wsl1.isVirtualized());
+
+		assertEquals(Wsl.WSL2, read("kvm", Collections.singletonMap("WSL_INTEROP", "/run/WSL/8_interop")).getWsl());
+		assertFalse(read("docker").isWsl());
+	}
+
+	@Test
+	public void testHypervisor() {
+		assertEquals(Hypervisor.KVM, read("kvm").getHypervisor());
+		assertEquals(Hypervisor.NONE, read("docker").getHypervisor());
+		assertEquals(Hypervisor.VMWARE, Hypervisor.fromDmi("VMware, Inc. VMware7,1", true));
+		assertEquals(Hypervisor.HYPER_V, Hypervisor.fromDmi("Microsoft Corporation Virtual Machine", true));
+		assertEquals(Hypervisor.NONE, Hypervisor.fromDmi("Dell Inc. PowerEdge R640", false));
+		assertEquals(Hypervisor.KVM, Hypervisor.fromDmi("Amazon EC2 m7i.large", true));
+
+		// Bare metal instances report their cloud vendor too, but no hypervisor
+		LinuxEnvironment metal = read("metal");
+		assertEquals(Hypervisor.NONE, metal.getHypervisor());
+		assertFalse(metal.isVirtualized());
+	}
+
+	@Test
+	public void testConstraint() {
+		OSConstraint<Integer> bufferSize = new OSConstraint<Integer>()
+				.linux().wsl(Wsl.WSL1, Wsl.WSL2).general().pick(1 << 20)
+				.linux().container(Container.DOCKER, Container.PODMAN).general().pick(1 << 16)
+				.linux().hypervisor(Hypervisor.NONE).general().pick(1 << 12);
+
+		assertEquals(1 << 20, bufferSize.get(new LinuxOS(LinuxOS.Distribution.UBUNTU, BASE_PATH.resolve("wsl2"))));
+		assertEquals(1 << 16, bufferSize.get(new LinuxOS(LinuxOS.Distribution.DEBIAN, BASE_PATH.resolve("docker"))));
+		assertEquals(1 << 12, bufferSize.get(new LinuxOS(LinuxOS.Distribution.DEBIAN)));
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the sampling of memory statistics in {@link MemorySampler}.
+ */
+public class MemorySamplerTests {
+
+	private static final String MEMINFO = "MemTotal:       65536000 kB\n"
+			+ "MemFree:        12000000 kB\n"
+			+ "MemAvailable:   40000000 kB\n"
+			+ "Buffers:          500000 kB\n"
+			+ "Cached:         24000000 kB\n"
+			+ "SwapCached:            0 kB\n"
+			+ "SwapTotal:       8388604 kB\n"
+			+ "SwapFree:        8000000 kB\n"
+			+ "CommitLimit:    41156604 kB\n"
+			+ "Committed_AS:   30000000 kB\n";
+
+	@TempDir
+	Path root;
+
+	private LinuxOS createOS(String meminfo) throws IOException {
+		Files.write(Files.createDirectories(root.resolve("proc")).resolve("meminfo"), meminfo.getBytes());
+		Files.write(Files.createDirectories(root.resolve("proc/sys/vm")).resolve("overcommit_memory"),
+				"2\n".getBytes());
+		return new LinuxOS(LinuxOS.Distribution.DEBIAN, root);
+	}
+
+	@Test
+	public void testSample() throws IOException {
+		try (MemorySampler sampler = createOS(MEMINFO).openMemorySampler()) {
+			assertEquals(65536000L * 1024, sampler.getMemTotal());
+			assertEquals(40000000L * 1024, sampler.getMemAvailable());
+			// SwapCached must not be mistaken for Cached
+			assertEquals(24000000L * 1024, sampler.getCached());
+			assertEquals(8000000L * 1024, sampler.getSwapFree());
+			assertEquals(30000000L * 1024, sampler.getCommittedAs());
+			assertEquals(2, sampler.getOvercommitMode());
+
+			Files.write(root.resolve("proc/meminfo"), "MemTotal: 65536000 kB\nMemAvailable: 1024 kB\n".getBytes());
+			sampler.sample();
+			assertEquals(1024L * 1024, sampler.getMemAvailable());
+			assertEquals(-1, sampler.getCached(), "A value of the previous sample was kept!");
+		}
+	}
+
+	@Test
+	public void testNoGarbage() throws IOException {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return;
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+
+		try (MemorySampler sampler = createOS(MEMINFO).openMemorySampler()) {
+			for (int i = 0; i < 10_000; i++)
+				sampler.sample();
+
+			long thread = Thread.currentThread().getId();
+			long before = bean.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < 10_000; i++)
+				sampler.sample();
+			long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+			// Leaves some room for the measurement itself
+			assertTrue(allocated < 10_000, "Sampling allocated " + allocated + " bytes!");
+		}
+	}
+
+	@Test
+	public void testNoFileSystem() {
+		assertThrows(IllegalStateException.class, () -> new LinuxOS(LinuxOS.Distribution.DEBIAN).openMemorySampler());
+	}
+
+}
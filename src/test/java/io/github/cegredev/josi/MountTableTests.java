@@ -0,0 +1,125 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the parsing of mounts in {@link Mount} and the lookups of {@link MountTable}.
+ */
+public class MountTableTests {
+
+	private static final String MOUNTINFO = "22 1 259:2 / / rw,relatime shared:1 - ext4 /dev/nvme0n1p2 rw\n"
+			+ "23 22 0:21 / /proc rw,nosuid,nodev,noexec,relatime shared:12 - proc proc rw\n"
+			+ "40 22 8:1 / /var/lib/data rw,noatime shared:20 - xfs /dev/sda1 rw,attr2,inode64\n"
+			+ "41 22 0:45 / /var/lib/data/tmp rw,nosuid,nodev shared:21 - tmpfs tmpfs rw,size=1024k\n"
+			+ "42 22 0:50 / /mnt/nfs rw,relatime shared:22 - nfs4 server:/export rw,vers=4.2,hard\n"
+			+ "43 22 259:5 / /mnt/pmem rw,relatime shared:23 - xfs /dev/pmem0 rw,attr2,dax=always\n"
+			+ "44 22 0:51 / /home/user/remote rw,nosuid shared:24 - fuse.sshfs user@host:/ rw,user_id=1000\n"
+			+ "45 22 0:52 / /mnt/c rw,noatime - 9p drvfs rw,dirsync,aname=drvfs;path=C:\\134\n"
+			+ "46 22 0:53 / /srv/my\\040files ro,relatime - btrfs /dev/sdb rw,space_cache\n";
+
+	@TempDir
+	Path root;
+
+	private LinuxOS os;
+
+	@BeforeEach
+	public void createRoot() throws IOException {
+		Files.write(Files.createDirectories(root.resolve("proc/self")).resolve("mountinfo"), MOUNTINFO.getBytes());
+		os = new LinuxOS(LinuxOS.Distribution.UBUNTU, root);
+	}
+
+	@Test
+	public void testFind() {
+		MountTable table = os.getMountTable();
+		assertEquals(9, table.getMounts().size());
+
+		assertEquals("/", table.find("/etc/hosts").getMountPoint());
+		assertEquals("/", table.find("/").getMountPoint());
+		assertEquals("/var/lib/data", table.find("/var/lib/data").getMountPoint());
+		assertEquals("/var/lib/data", table.find("/var/lib/data/segments/0001.log").getMountPoint());
+		assertEquals("/var/lib/data/tmp", table.find("/var/lib/data/tmp/upload").getMountPoint());
+		assertEquals("/", table.find("/var/lib/database").getMountPoint());
+		assertEquals("/srv/my files", table.find("/srv/my files/a").getMountPoint());
+		assertEquals("/var/lib/data", os.getMount(Paths.get("/var/lib/data/tmp/../index")).getMountPoint());
+	}
+
+	@Test
+	public void testTypesAndOptions() {
+		MountTable table = os.getMountTable();
+
+		assertEquals(Mount.FileSystemType.EXT4, table.find("/").getType());
+		assertEquals(Mount.FileSystemType.TMPFS, table.find("/var/lib/data/tmp").getType());
+		assertEquals(Mount.FileSystemType.NFS, table.find("/mnt/nfs/a").getType());
+		assertTrue(table.find("/mnt/nfs/a").getType().isNetwork());
+		assertEquals(Mount.FileSystemType.FUSE, table.find("/home/user/remote/x").getType());
+		assertEquals("fuse.sshfs", table.find("/home/user/remote/x").getFsType());
+		assertEquals(Mount.FileSystemType.NETWORK, table.find("/mnt/c/Users").getType());
+		assertEquals(Mount.FileSystemType.VIRTUAL, table.find("/proc/self").getType());
+		assertEquals(Mount.FileSystemType.BTRFS, table.find("/srv/my files").getType());
+
+		assertTrue(table.find("/var/lib/data").isNoAtime());
+		assertFalse(table.find("/").isNoAtime());
+		assertTrue(table.find("/mnt/pmem/file").isDax());
+		assertFalse(table.find("/var/lib/data").isDax());
+		assertTrue(table.find("/srv/my files").isReadOnly());
+		assertTrue(table.find("/mnt/nfs").hasSuperOption("vers"));
+		assertFalse(table.find("/mnt/nfs").hasSuperOption("ver"));
+	}
+
+	@Test
+	public void testRefresh() throws IOException {
+		MountTable table = os.getMountTable();
+		assertSame(table, os.refreshMountTable(), "An unchanged table was replaced!");
+
+		Files.write(root.resolve("proc/self/mountinfo"),
+				"47 22 0:54 / /mnt/usb rw,relatime - vfat /dev/sdc1 rw\n".getBytes(), StandardOpenOption.APPEND);
+		MountTable refreshed = os.refreshMountTable();
+
+		assertNotSame(table, refreshed);
+		assertSame(refreshed, os.getMountTable());
+		assertEquals(10, refreshed.getMounts().size());
+		assertEquals(Mount.FileSystemType.OTHER, refreshed.find("/mnt/usb/photos").getType());
+		assertSame(table.find("/var/lib/data"), refreshed.find("/var/lib/data"), "An unchanged mount was parsed again!");
+		assertEquals("/", table.find("/mnt/usb/photos").getMountPoint());
+	}
+
+	@Test
+	public void testNoFileSystem() {
+		assertNull(new LinuxOS(LinuxOS.Distribution.UBUNTU).getMount(Paths.get("/")));
+		assertTrue(new LinuxOS(LinuxOS.Distribution.UBUNTU).getMountTable().getMounts().isEmpty());
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the recognition of native binaries in {@link NativeBinary}.
+ */
+public class NativeBinaryTests {
+
+	@TempDir
+	Path directory;
+
+	private static byte[] elf(int machine, boolean littleEndian) {
+		ByteBuffer buffer = ByteBuffer.allocate(64).order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		buffer.put(new byte[]{0x7F, 'E', 'L', 'F', 2, (byte) (littleEndian ? 1 : 2), 1, 0});
+		buffer.putShort(16, (short) 3).putShort(18, (short) machine);
+		return buffer.array();
+	}
+
+	private static byte[] pe(int machine) {
+		ByteBuffer buffer = ByteBuffer.allocate(0x90).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(0, (byte) 'M').put(1, (byte) 'Z').putInt(0x3C, 0x80);
+		buffer.putInt(0x80, 0x00004550).putShort(0x84, (short) machine);
+		return buffer.array();
+	}
+
+	private static byte[] machO(int cpuType) {
+		return ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN).putInt(0xFEEDFACF).putInt(cpuType).array();
+	}
+
+	private static byte[] fat(int... cpuTypes) {
+		ByteBuffer buffer = ByteBuffer.allocate(8 + cpuTypes.length * 20);
+		buffer.putInt(0xCAFEBABE).putInt(cpuTypes.length);
+		for (int cpuType : cpuTypes)
+			buffer.putInt(cpuType).putInt(0).putInt(0).putInt(0).putInt(0);
+		return buffer.array();
+	}
+
+	private NativeBinary read(byte[] content) throws IOException {
+		Path file = Files.createTempFile(directory, "binary", null);
+		Files.write(file, content);
+		return NativeBinary.read(file);
+	}
+
+	@Test
+	public void testElf() throws IOException {
+		NativeBinary binary = read(elf(62, true));
+		assertEquals(NativeBinary.Format.ELF, binary.getFormat());
+		assertEquals(CurrentOS.Family.LINUX, binary.getFamily());
+		assertEquals(Architecture.X86_64, binary.getArchitecture());
+
+		assertEquals(Architecture.AARCH64, read(elf(183, true)).getArchitecture());
+		assertEquals(Architecture.PPC64LE, read(elf(21, true)).getArchitecture());
+		assertEquals(Architecture.PPC64, read(elf(21, false)).getArchitecture());
+	}
+
+	@Test
+	public void testPe() throws IOException {
+		NativeBinary binary = read(pe(0x8664));
+		assertEquals(NativeBinary.Format.PE, binary.getFormat());
+		assertEquals(CurrentOS.Family.WINDOWS, binary.getFamily());
+		assertEquals(Architecture.X86_64, binary.getArchitecture());
+
+		assertEquals(Architecture.AARCH64, read(pe(0xAA64)).getArchitecture());
+		// Plain DOS executable without PE header
+		assertNull(read(Arrays.copyOf(pe(0x8664), 0x40)));
+	}
+
+	@Test
+	public void testMachO() throws IOException {
+		NativeBinary binary = read(machO(0x0100000C));
+		assertEquals(NativeBinary.Format.MACH_O, binary.getFormat());
+		assertEquals(CurrentOS.Family.MAC, binary.getFamily());
+		assertEquals(Architecture.AARCH64, binary.getArchitecture());
+
+		assertEquals(Arrays.asList(Architecture.X86_64, Architecture.AARCH64),
+				read(fat(0x01000007, 0x0100000C)).getArchitectures());
+	}
+
+	@Test
+	public void testUnsupported() throws IOException {
+		// A Java class file shares its magic number with fat binaries
+		assertNull(read(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52}));
+		assertNull(read("#!/bin/sh\necho hello\n".getBytes()));
+		assertNull(read(new byte[0]));
+	}
+
+	@Test
+	public void testScan() throws IOException {
+		Path nested = Files.createDirectories(directory.resolve("lib/linux"));
+		Files.write(nested.resolve("libfoo.so"), elf(62, true));
+		Files.write(directory.resolve("foo.dll"), pe(0x14C));
+		Files.write(directory.resolve("README"), "Not a binary".getBytes());
+
+		Path jar = directory.resolve("natives.jar");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+			out.putNextEntry(new ZipEntry("darwin/libfoo.dylib"));
+			out.write(fat(0x01000007, 0x0100000C));
+			out.putNextEntry(new ZipEntry("Foo.class"));
+			out.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 1});
+			out.closeEntry();
+		}
+		// A broken archive must not hide the other results
+		Path broken = directory.resolve("broken.jar");
+		Files.write(broken, "Not an archive".getBytes());
+		assertThrows(IOException.class, () -> NativeBinary.scanArchive(broken));
+
+		Map<String, NativeBinary> binaries = NativeBinary.scan(directory);
+		assertEquals(3, binaries.size(), "Did not find the correct binaries: " + binaries);
+		assertEquals(CurrentOS.Family.LINUX, binaries.get(nested.resolve("libfoo.so").toString()).getFamily());
+		assertEquals(Architecture.X86, binaries.get(directory.resolve("foo.dll").toString()).getArchitecture());
+		assertEquals(CurrentOS.Family.MAC, binaries.get(jar + "!/darwin/libfoo.dylib").getFamily());
+
+		// Unreadable subdirectories are skipped, but the directory itself must be readable
+		assertThrows(IOException.class, () -> NativeBinary.scan(directory.resolve("does-not-exist")));
+	}
+
+}
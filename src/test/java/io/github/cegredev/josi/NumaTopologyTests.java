@@ -0,0 +1,70 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of the NUMA topology in {@link NumaTopology}.
+ */
+public class NumaTopologyTests {
+
+	private static final Path ROOT = Paths.get("src/test/resources/numa");
+
+	@Test
+	public void testTwoNodes() {
+		NumaTopology topology = new LinuxOS(LinuxOS.Distribution.DEBIAN, ROOT).getNumaTopology();
+
+		assertTrue(topology.isNuma());
+		assertEquals(2, topology.getNodes().size());
+
+		NumaTopology.Node first = topology.getNode(0);
+		assertEquals(8, first.getCpuCount());
+		assertEquals(32657356L * 1024, first.getMemoryTotal());
+		assertEquals(1048576L * 1024, first.getMemoryFree());
+		assertEquals(33554432L * 1024, topology.getNode(1).getMemoryTotal());
+
+		assertSame(topology.getNode(1), topology.getNodeOfCpu(12));
+		assertSame(first, topology.getNodeOfCpu(9));
+		assertNull(topology.getNodeOfCpu(16));
+
+		assertEquals(10, topology.getDistance(0, 0));
+		assertEquals(21, topology.getDistance(0, 1));
+		assertEquals(21, topology.getDistance(1, 0));
+		assertEquals(-1, topology.getDistance(0, 2));
+	}
+
+	@Test
+	public void testNone() {
+		assertFalse(new LinuxOS(LinuxOS.Distribution.DEBIAN).getNumaTopology().isNuma());
+		assertTrue(new LinuxOS(LinuxOS.Distribution.DEBIAN, Paths.get("src/test/resources/cgroup/v1"))
+				.getNumaTopology().getNodes().isEmpty());
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the binary encoding of operating systems in {@link OSCodec}.
+ */
+public class OSCodecTests {
+
+	@Test
+	public void testRoundTrip() {
+		for (WinOS.Version version : WinOS.Version.values()) {
+			roundTrip(new WinOS(version, false));
+			roundTrip(new WinOS(version, true));
+		}
+
+		for (LinuxOS.Distribution distro : LinuxOS.Distribution.values())
+			roundTrip(new LinuxOS(distro));
+
+		for (OtherOS.OS os : OtherOS.OS.values())
+			roundTrip(new OtherOS(os));
+
+		roundTrip(new MacOS(10, 15));
+		roundTrip(new MacOS(11, 0));
+		roundTrip(new MacOS(-1, -1));
+		roundTrip(new MacOS(12, 400));
+	}
+
+	private static void roundTrip(OperatingSystem os) {
+		assertEquals(os, OSCodec.decode(OSCodec.encode(os)), "Did not decode the same operating system!");
+	}
+
+	@Test
+	public void testStableEncoding() {
+		// These values must never change, otherwise previously stored values can no longer be read
+		assertEquals(0x10000008, OSCodec.encode(new WinOS(WinOS.Version.WIN_10, false)));
+		assertEquals(0x10000108, OSCodec.encode(new WinOS(WinOS.Version.WIN_10, true)));
+		assertEquals(0x10000009, OSCodec.encode(new WinOS(WinOS.Version.WIN_11, false)));
+		assertEquals(0x1100A00F, OSCodec.encode(new MacOS(10, 15)));
+		assertEquals(0x11FFFFFF, OSCodec.encode(new MacOS(-1, -1)));
+		assertEquals(0x12000002, OSCodec.encode(new LinuxOS(LinuxOS.Distribution.UBUNTU)));
+		assertEquals(0x13000001, OSCodec.encode(new OtherOS(OtherOS.OS.SOLARIS)));
+	}
+
+	@Test
+	public void testInterned() {
+		assertSame(OSCodec.decode(0x10000008), OSCodec.decode(0x10000008), "Windows was not interned!");
+		assertSame(OSCodec.decode(0x1100A00F), OSCodec.decode(0x1100A00F), "Mac was not interned!");
+		assertSame(OSCodec.decode(0x12000002), OSCodec.decode(0x12000002), "Linux was not interned!");
+	}
+
+	@Test
+	public void testUnknownCodes() {
+		// Codes written by a newer version fall back to the unknown constant of their family
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), OSCodec.decode(0x120000FF));
+		assertEquals(new WinOS(WinOS.Version.UNKNOWN, true), OSCodec.decode(0x100001FF));
+
+		assertThrows(IllegalArgumentException.class, () -> OSCodec.decode(0x20000000));
+		assertThrows(IllegalArgumentException.class, () -> OSCodec.decode(0x1F000000));
+	}
+
+	@Test
+	public void testByteBuffer() {
+		ByteBuffer buffer = ByteBuffer.allocate(OSCodec.BYTES * 2);
+		OSCodec.write(new MacOS(11, 2), buffer);
+		OSCodec.write(new LinuxOS(LinuxOS.Distribution.FEDORA), buffer);
+		buffer.flip();
+
+		assertEquals(new MacOS(11, 2), OSCodec.read(buffer));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.FEDORA), OSCodec.read(buffer));
+		assertFalse(buffer.hasRemaining());
+	}
+
+}
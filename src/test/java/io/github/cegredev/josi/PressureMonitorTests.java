@@ -0,0 +1,186 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the parsing and triggers of {@link PressureMonitor}.
+ */
+public class PressureMonitorTests {
+
+	@TempDir
+	Path root;
+
+	private void writePressure(String resource, long someTotal, String someAvg10) throws IOException {
+		Files.write(Files.createDirectories(root.resolve("proc/pressure")).resolve(resource),
+				("some avg10=" + someAvg10 + " avg60=0.50 avg300=0.05 total=" + someTotal
+						+ "\nfull avg10=0.00 avg60=0.00 avg300=0.00 total=0\n").getBytes());
+	}
+
+	@Test
+	public void testPoll() throws IOException {
+		writePressure("cpu", 1000, "1.63");
+		writePressure("io", 0, "0.00");
+
+		try (PressureMonitor monitor = new LinuxOS(LinuxOS.Distribution.UBUNTU, root).openPressureMonitor()) {
+			assertFalse(monitor.isAvailable(PressureMonitor.Resource.MEMORY));
+			assertNull(monitor.getSnapshot(PressureMonitor.Resource.MEMORY));
+
+			PressureMonitor.Snapshot cpu = monitor.getSnapshot(PressureMonitor.Resource.CPU);
+			assertEquals(1.63, cpu.getSomeAvg10());
+			assertEquals(0.5, cpu.getSomeAvg60());
+			assertEquals(0.05, cpu.getSomeAvg300());
+			assertEquals(1000, cpu.getSomeTotal());
+
+			List<PressureMonitor.Snapshot> received = new ArrayList<>();
+			monitor.addListener(received::add);
+			writePressure("cpu", 2000, "42.10");
+			monitor.poll();
+
+			assertEquals(2, received.size());
+			assertEquals(42.1, monitor.getSnapshot(PressureMonitor.Resource.CPU).getSomeAvg10());
+			assertNotSame(cpu, monitor.getSnapshot(PressureMonitor.Resource.CPU));
+		}
+	}
+
+	@Test
+	public void testTrigger() throws IOException {
+		writePressure("memory", 0, "0.00");
+
+		try (PressureMonitor monitor = new LinuxOS(LinuxOS.Distribution.UBUNTU, root).openPressureMonitor()) {
+			List<PressureMonitor.Snapshot> fired = new ArrayList<>();
+			// 100ms of stalls within 10 seconds, which the test will not exceed
+			monitor.addTrigger(PressureMonitor.Resource.MEMORY, false, 100_000, 10_000_000, fired::add);
+
+			monitor.poll();
+			writePressure("memory", 60_000, "0.60");
+			monitor.poll();
+			assertTrue(fired.isEmpty(), "The trigger fired below its threshold!");
+
+			writePressure("memory", 150_000, "1.50");
+			monitor.poll();
+			assertEquals(1, fired.size());
+
+			writePressure("memory", 400_000, "4.00");
+			monitor.poll();
+			assertEquals(1, fired.size(), "The trigger fired more than once per window!");
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			try (PressureMonitor monitor = new LinuxOS(LinuxOS.Distribution.UBUNTU, root).openPressureMonitor()) {
+				monitor.addTrigger(PressureMonitor.Resource.MEMORY, true, 2_000_000, 1_000_000, snapshot -> {
+				});
+			}
+		});
+	}
+
+	@Test
+	public void testFailingListener() throws IOException, InterruptedException {
+		writePressure("cpu", 1000, "1.63");
+
+		PressureMonitor monitor = new LinuxOS(LinuxOS.Distribution.UBUNTU, root).openPressureMonitor();
+		List<Exception> errors = new CopyOnWriteArrayList<>();
+		CountDownLatch polls = new CountDownLatch(3);
+		monitor.setErrorHandler(errors::add);
+		monitor.addListener(snapshot -> {
+			throw new IllegalStateException("Broken listener");
+		});
+		monitor.addListener(snapshot -> polls.countDown());
+
+		assertFalse(monitor.isRunning());
+		monitor.start(1, TimeUnit.MILLISECONDS);
+		assertTrue(polls.await(10, TimeUnit.SECONDS), "A failing listener stopped the polling!");
+		assertTrue(monitor.isRunning());
+		assertTrue(errors.get(0) instanceof IllegalStateException);
+
+		monitor.close();
+		assertFalse(monitor.isRunning());
+	}
+
+	@Test
+	public void testDefaultErrorHandler() throws IOException {
+		writePressure("cpu", 1000, "1.63");
+
+		PrintStream err = System.err;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		try (PressureMonitor monitor = new LinuxOS(LinuxOS.Distribution.UBUNTU, root).openPressureMonitor()) {
+			monitor.addListener(snapshot -> {
+				throw new IllegalStateException("Broken listener");
+			});
+
+			System.setErr(new PrintStream(printed, true));
+			for (int i = 0; i < 3; i++)
+				monitor.poll();
+		} finally {
+			System.setErr(err);
+		}
+
+		String output = printed.toString();
+		assertEquals(output.indexOf("Broken listener"), output.lastIndexOf("Broken listener"),
+				"A persistent failure was reported more than once!");
+		assertTrue(output.contains("Broken listener"));
+	}
+
+	@Test
+	public void testCGroup() throws IOException {
+		LinuxOS os = new LinuxOS(LinuxOS.Distribution.UBUNTU, Paths.get("src/test/resources/cgroup/v2"));
+
+		try (PressureMonitor monitor = os.openCGroupPressureMonitor()) {
+			PressureMonitor.Snapshot memory = monitor.getSnapshot(PressureMonitor.Resource.MEMORY);
+			assertEquals(12.5, memory.getSomeAvg10());
+			assertEquals(3.1, memory.getFullAvg10());
+			assertEquals(1234567, memory.getFullTotal());
+			assertEquals(42, monitor.getSnapshot(PressureMonitor.Resource.CPU).getSomeTotal());
+			assertFalse(monitor.isAvailable(PressureMonitor.Resource.IO));
+		}
+
+		// Hybrid setups have no controllers in the unified hierarchy, but still report its pressure
+		os = new LinuxOS(LinuxOS.Distribution.UBUNTU, Paths.get("src/test/resources/cgroup/hybrid"));
+		assertEquals(1, os.getCGroupLimits().getVersion());
+		try (PressureMonitor monitor = os.openCGroupPressureMonitor()) {
+			assertEquals(98765, monitor.getSnapshot(PressureMonitor.Resource.CPU).getSomeTotal());
+		}
+
+		assertThrows(IOException.class, () -> new LinuxOS(LinuxOS.Distribution.UBUNTU, root).openPressureMonitor());
+		assertThrows(IOException.class, () -> new LinuxOS(LinuxOS.Distribution.UBUNTU,
+				Paths.get("src/test/resources/cgroup/v1")).openCGroupPressureMonitor());
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static io.github.cegredev.josi.ProcessLimits.Resource.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the parsing of resource limits and tunables in {@link ProcessLimits}.
+ */
+public class ProcessLimitsTests {
+
+	@Test
+	public void testRead() {
+		ProcessLimits limits = new LinuxOS(LinuxOS.Distribution.UBUNTU, Paths.get("src/test/resources/limits"))
+				.getProcessLimits();
+
+		assertEquals(1024, limits.getMaxOpenFiles());
+		assertEquals(524288, limits.getHardLimit(OPEN_FILES));
+		assertEquals(8388608, limits.getMaxLockedMemory());
+		assertEquals(127431, limits.getMaxProcesses());
+		assertEquals(ProcessLimits.UNLIMITED, limits.getSoftLimit(CPU_TIME));
+		assertEquals(ProcessLimits.UNLIMITED, limits.getHardLimit(STACK_SIZE));
+		assertEquals(0, limits.getSoftLimit(CORE_FILE_SIZE));
+		assertEquals(0, limits.getHardLimit(NICE_PRIORITY), "A limit without a unit was not parsed!");
+
+		assertEquals(65530, limits.getMaxMapCount());
+		assertEquals(4096, limits.getSomaxconn());
+		assertEquals(4194304, limits.getPidMax());
+		assertEquals(0, limits.getSysctl(ProcessLimits.Sysctl.OVERCOMMIT_MEMORY));
+		assertEquals(1048576, limits.getSysctl(ProcessLimits.Sysctl.NR_OPEN));
+		assertEquals(-1, limits.getSysctl(ProcessLimits.Sysctl.AIO_MAX_NR));
+		assertEquals(32768, limits.getLocalPortRangeStart());
+		assertEquals(60999, limits.getLocalPortRangeEnd());
+	}
+
+	@Test
+	public void testUnknown() {
+		ProcessLimits limits = new LinuxOS(LinuxOS.Distribution.UBUNTU).getProcessLimits();
+
+		assertEquals(-1, limits.getMaxOpenFiles());
+		assertEquals(-1, limits.getMaxMapCount());
+		assertEquals(-1, limits.getLocalPortRangeStart());
+	}
+
+}
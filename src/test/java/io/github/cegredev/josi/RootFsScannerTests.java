@@ -0,0 +1,109 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the detection of operating systems in extracted root file systems in {@link RootFsScanner}.
+ */
+public class RootFsScannerTests {
+
+	private static final Path OS_RELEASES = Paths.get("src/test/resources/etc/os-releases");
+
+	@TempDir
+	Path directory;
+
+	private Path copyOsRelease(Path root, String path, String fileName) throws IOException {
+		Path target = root.resolve(path);
+		Files.createDirectories(target.getParent());
+		return Files.copy(OS_RELEASES.resolve(fileName), target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Test
+	public void testScan() throws IOException {
+		// Regular file in etc
+		Path debian = Files.createDirectory(directory.resolve("debian"));
+		copyOsRelease(debian, "etc/os-release", "debian0.txt");
+
+		// Absolute symbolic link, which must not escape the root
+		Path ubuntu = Files.createDirectory(directory.resolve("ubuntu"));
+		copyOsRelease(ubuntu, "usr/lib/os-release", "ubuntu0.txt");
+		Files.createSymbolicLink(Files.createDirectory(ubuntu.resolve("etc")).resolve("os-release"),
+				Paths.get("/usr/lib/os-release"));
+
+		// Relative symbolic link leaving the root with too many ".."
+		Path fedora = Files.createDirectory(directory.resolve("fedora"));
+		copyOsRelease(fedora, "usr/lib/os-release", "fedora0.txt");
+		Files.createSymbolicLink(Files.createDirectory(fedora.resolve("etc")).resolve("os-release"),
+				Paths.get("../../../../usr/lib/os-release"));
+
+		// Only the fallback location
+		Path arch = Files.createDirectory(directory.resolve("arch"));
+		copyOsRelease(arch, "usr/lib/os-release", "arch0.txt");
+
+		// Symbolic link loop
+		Path loop = Files.createDirectories(directory.resolve("loop/etc"));
+		Files.createSymbolicLink(loop.resolve("os-release"), Paths.get("os-release"));
+
+		Path empty = Files.createDirectory(directory.resolve("empty"));
+
+		// An os-release file that cannot be decoded, which must not fail the other roots
+		Path broken = Files.createDirectories(directory.resolve("broken/etc"));
+		Files.write(broken.resolve("os-release"), new byte[]{'I', 'D', '=', (byte) 0xFF, (byte) 0xFE, '\n'});
+		assertThrows(IOException.class, () -> RootFsScanner.detect(directory.resolve("broken")));
+
+		Map<Path, OperatingSystem> result = RootFsScanner.scan(directory, 2);
+		assertEquals(7, result.size());
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), result.get(directory.resolve("broken")));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.DEBIAN), result.get(debian));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UBUNTU), result.get(ubuntu));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.FEDORA), result.get(fedora));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.ARCH_LINUX), result.get(arch));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), result.get(directory.resolve("loop")));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), result.get(empty));
+	}
+
+	@Test
+	public void testIdLike() throws IOException {
+		Path mint = Files.createDirectory(directory.resolve("mint"));
+		copyOsRelease(mint, "etc/os-release", "linux_mint0.txt");
+		Path unknown = Files.createDirectory(directory.resolve("unknown"));
+		copyOsRelease(unknown, "etc/os-release", "unknown0.txt");
+
+		assertEquals(new LinuxOS(LinuxOS.Distribution.LINUX_MINT), RootFsScanner.detect(mint));
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), RootFsScanner.detect(unknown));
+	}
+
+}
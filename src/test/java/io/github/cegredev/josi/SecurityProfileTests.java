@@ -0,0 +1,88 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import io.github.cegredev.josi.constraints.OSConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static io.github.cegredev.josi.SecurityProfile.Capability.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the capability and security policy probe of {@link SecurityProfile}.
+ */
+public class SecurityProfileTests {
+
+	private static final Path ROOT = Paths.get("src/test/resources/security");
+
+	@Test
+	public void testDockerDefault() {
+		SecurityProfile profile = new LinuxOS(LinuxOS.Distribution.DEBIAN, ROOT).getSecurityProfile();
+
+		// The default capabilities of a Docker container
+		assertEquals(14, profile.getCapabilities().size());
+		assertTrue(profile.hasCapability(CHOWN));
+		assertTrue(profile.hasCapability(NET_BIND_SERVICE));
+		assertTrue(profile.hasCapability(SETFCAP));
+		assertFalse(profile.hasCapability(IPC_LOCK));
+		assertFalse(profile.hasCapability(SYS_NICE));
+		assertFalse(profile.hasCapability(SYS_ADMIN));
+		assertEquals(profile.getCapabilities(), profile.getBoundingCapabilities());
+
+		assertEquals(SecurityProfile.Seccomp.FILTER, profile.getSeccomp());
+		assertFalse(profile.isNoNewPrivileges());
+		assertEquals(Collections.singletonList("apparmor"), profile.getSecurityModules());
+		assertEquals("docker-default (enforce)", profile.getSecurityContext());
+
+		assertEquals(8388608, profile.getLockedMemoryLimit());
+		assertTrue(profile.canLockMemory(1024 * 1024));
+		assertFalse(profile.canLockMemory(64 * 1024 * 1024));
+		assertFalse(profile.canRaisePriority());
+		assertFalse(profile.canUseRealtimePriority());
+	}
+
+	@Test
+	public void testUnknown() {
+		SecurityProfile profile = new LinuxOS(LinuxOS.Distribution.DEBIAN).getSecurityProfile();
+
+		assertTrue(profile.getCapabilities().isEmpty());
+		assertEquals(SecurityProfile.Seccomp.UNKNOWN, profile.getSeccomp());
+		assertFalse(profile.canLockMemory(1));
+	}
+
+	@Test
+	public void testConstraint() {
+		OSConstraint<String> locking = new OSConstraint<String>()
+				.linux().capabilities(IPC_LOCK).general().pick("unlimited")
+				.linux().canLockMemory(4 * 1024 * 1024).general().pick("limited")
+				.linux().seccomp(SecurityProfile.Seccomp.DISABLED).general().pick("unfiltered");
+
+		assertEquals("limited", locking.get(new LinuxOS(LinuxOS.Distribution.DEBIAN, ROOT)));
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+
+ * Copyright (c) 2021 cegredev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.cegredev.josi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests concerning the recognition of operating systems from user agents in {@link UserAgentParser}.
+ */
+public class UserAgentParserTests {
+
+	private static final String FAIL_MESSAGE = "Did not determine the correct OS for the given user agent.";
+
+	@Test
+	public void testWindows() {
+		assertEquals(new WinOS(WinOS.Version.WIN_10, false), UserAgentParser.determine("Mozilla/5.0 (Windows NT "
+				+ "10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36"), FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_8_1, false), UserAgentParser.determine("Mozilla/5.0 (Windows NT "
+				+ "6.3; Win64; x64; rv:109.0) Gecko/20100101 Firefox/115.0"), FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_7, false),
+				UserAgentParser.determine("Mozilla/5.0 (Windows NT 6.1; Win64; x64)"), FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_XP, false),
+				UserAgentParser.determine("Mozilla/4.0 (compatible; MSIE 8.0; Windows NT 5.1; Trident/4.0)"),
+				FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.WIN_98, false),
+				UserAgentParser.determine("Mozilla/4.0 (compatible; MSIE 5.5; Windows 98; Win 9x 4.90)"), FAIL_MESSAGE);
+		assertEquals(new WinOS(WinOS.Version.UNKNOWN, false),
+				UserAgentParser.determine("Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.0)"), FAIL_MESSAGE);
+	}
+
+	@Test
+	public void testMac() {
+		assertEquals(new MacOS(10, 15), UserAgentParser.determine("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) "
+				+ "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15"), FAIL_MESSAGE);
+		assertEquals(new MacOS(10, 15), UserAgentParser.determine("Mozilla/5.0 (Macintosh; Intel Mac OS X 10.15; "
+				+ "rv:121.0) Gecko/20100101 Firefox/121.0"), FAIL_MESSAGE);
+		assertEquals(new MacOS(14, 2), UserAgentParser.determine("Mozilla/5.0 (Macintosh; Intel Mac OS X 14_2_1)"),
+				FAIL_MESSAGE);
+		assertEquals(new MacOS(-1, -1), UserAgentParser.determine("Mozilla/5.0 (Macintosh; PPC)"), FAIL_MESSAGE);
+	}
+
+	@Test
+	public void testLinux() {
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UNKNOWN), UserAgentParser.determine("Mozilla/5.0 (X11; Linux "
+				+ "x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36"), FAIL_MESSAGE);
+		assertEquals(new LinuxOS(LinuxOS.Distribution.UBUNTU), UserAgentParser.determine("Mozilla/5.0 (X11; Ubuntu; "
+				+ "Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0"), FAIL_MESSAGE);
+		assertEquals(new LinuxOS(LinuxOS.Distribution.LINUX_MINT), UserAgentParser.determine("Mozilla/5.0 (X11; U; "
+				+ "Linux i686; en-US; rv:1.9.0.3) Gecko/2008092416 Firefox/3.0.3 Linux Mint/5 (Elyssa)"), FAIL_MESSAGE);
+	}
+
+	@Test
+	public void testOther() {
+		assertEquals(new OtherOS(OtherOS.OS.ANDROID), UserAgentParser.determine("Mozilla/5.0 (Linux; Android 13; "
+				+ "SM-S908B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Mobile Safari/537.36"), FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.IOS), UserAgentParser.determine("Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 "
+				+ "like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148"), FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.CHROME_OS), UserAgentParser.determine("Mozilla/5.0 (X11; CrOS x86_64 "
+				+ "14541.0.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36"), FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.UNKNOWN), UserAgentParser.determine("Mozilla/5.0 (Windows Phone 10.0; "
+				+ "Android 6.0.1; Microsoft; Lumia 950)"), FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.UNKNOWN), UserAgentParser.determine("curl/8.4.0"), FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.UNKNOWN), UserAgentParser.determine(""), FAIL_MESSAGE);
+		assertEquals(new OtherOS(OtherOS.OS.UNKNOWN), UserAgentParser.determine("Ünïcödé Ẅindows"), FAIL_MESSAGE);
+	}
+
+	@Test
+	public void testCache() {
+		UserAgentParser parser = new UserAgentParser(2);
+		String userAgent = "Mozilla/5.0 (X11; Fedora; Linux x86_64; rv:120.0) Gecko/20100101 Firefox/120.0";
+
+		assertSame(parser.parse(userAgent), parser.parse(userAgent), "Did not return the cached value!");
+		assertEquals(new LinuxOS(LinuxOS.Distribution.FEDORA), parser.parse(new StringBuilder(userAgent)),
+				FAIL_MESSAGE);
+		assertEquals(new MacOS(10, 15), new UserAgentParser(0).parse("Intel Mac OS X 10_15"), FAIL_MESSAGE);
+	}
+
+}